@@ -143,16 +143,8 @@ public class Test {
 									"?s1 <http://example.org#firstname> ?name1." +
 									"?s2 <http://example.org#firstname> ?name2. }");
 		
-		// Parse and write
-		while (rs.hasNext()){
-			
-			String[] tuple = rs.next();
-			io.writeTriple(	db1, 
-							tuple[rs.column("s1")], 
-							"<http://www.example.org#combination>",
-							tuple[rs.column("s2")]);
-		}
-		rs.close();
+		// Write a triple per row in one batch (closes the result set)
+		io.writeTriples(db1, rs, "?s1", "<http://www.example.org#combination>", "?s2");
 		
 		// Prints all triples in database 
 		System.out.println("Triples in temporary database:");
@@ -0,0 +1,83 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.Node;
+import de.tum.in.fedsparql.rts.executor.FSResultSet;
+
+/**
+ * The rule pattern of Test.executeRule(): reads a result set of TRIPLES rows (first argument overrides TRIPLES)
+ * and writes a triple per row into a new database:
+ * - per triple: IO.writeTriple() for every row
+ * - batch: collects the rows, IO.writeTriples(database, List)
+ * - pipe: IO.writeTriples(database, FSResultSet, ...), terms are passed on without rendering
+ */
+public class BulkWriteBenchmark extends TypedResultSetBenchmark {
+
+	protected static final int TRIPLES = 500000;
+	protected static final String RULE = "SELECT ?s ?o WHERE { ?s <" + NS + "next> ?o }";
+	protected static final String PREDICATE = "<" + NS + "linked>";
+
+
+	public static void main(String[] args) throws Exception {
+		int triples = args.length > 0 ? Integer.parseInt(args[0]) : TRIPLES;
+
+		List<Node> nodes = new ArrayList<Node>();
+		nodes.add(new Node("Node1", "localhost", 2221));
+		DummyIO io = new DummyIO(nodes);
+		DummyDatabase database = new DummyDatabase("db0");
+		_fill(database.getModel(), 0, triples);
+		io.register(nodes.get(0), database);
+		System.out.println(triples + " rows");
+
+		System.out.println("variant\ttime [ms]\tbytes/row\twritten");
+		String[] names = new String[]{"per triple", "batch", "pipe"};
+		for (int variant=0; variant<names.length; variant++) {
+			long time = Long.MAX_VALUE;
+			long bytes = 0;
+			int written = 0;
+			for (int run=0; run<RUNS; run++) {
+				Database target = new DummyDatabase();
+				long allocated = _allocatedBytes();
+				long start = System.nanoTime();
+				_write(variant, io, database, target);
+				time = Math.min(time, System.nanoTime() - start);
+				bytes = _allocatedBytes() - allocated;
+				written = io.getSize(target);
+			}
+			System.out.println(names[variant] + "\t" + time / 1e6 + "\t" + (bytes < 0 ? "n/a" : String.valueOf(bytes / triples)) + "\t" + written);
+		}
+	}
+
+
+	/* protected methods */
+	protected static void _write(int variant, DummyIO io, Database source, Database target) throws Exception {
+		FSResultSet rs = io.execute(RULE, source);
+		int s = rs.column("s");
+		int o = rs.column("o");
+		switch (variant) {
+		case 0:
+			while (rs.hasNext()) {
+				String[] row = rs.next();
+				io.writeTriple(target, row[s], PREDICATE, row[o]);
+			}
+			rs.close();
+			break;
+		case 1:
+			List<String[]> triples = new ArrayList<String[]>();
+			while (rs.hasNext()) {
+				String[] row = rs.next();
+				triples.add(new String[]{row[s], PREDICATE, row[o]});
+			}
+			rs.close();
+			io.writeTriples(target, triples);
+			break;
+		default:
+			io.writeTriples(target, rs, "?s", PREDICATE, "?o");
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Queries across DATABASES databases of TRIPLES triples each, one node per database (first argument overrides TRIPLES):
+ * IO.executeFederated() (source selection, parallel sub-queries, hash/bind joins) vs IO.execute() on the union view.
+ *
+ * Uses the data of UnionQueryBenchmark: the <next> links lead from database k to database k+1,
+ * so every join crosses databases. Checks that both return the same number of results,
+ * also if every database contains part of the next database's triples. A few subjects own blank nodes.
+ */
+public class FederatedQueryBenchmark extends UnionQueryBenchmark {
+
+	protected static final int TRIPLES = 200000;
+
+	protected static final String[] QUERIES = new String[]{
+		// selective: bind joins
+		"SELECT ?z ?o WHERE { <" + NS + "db0/s42> <" + NS + "next> ?y . ?y <" + NS + "next> ?z . ?z <" + NS + "p2> ?o }",
+		// unselective: hash joins
+		"SELECT ?x ?o WHERE { ?x <" + NS + "next> ?y . ?y <" + NS + "p3> ?o }",
+		// no source for the second pattern: empty without joining
+		"SELECT ?x WHERE { ?x <" + NS + "next> ?y . ?y <" + NS + "missing> ?o }",
+		// distinct + limit
+		"SELECT DISTINCT ?o WHERE { ?x <" + NS + "next> ?y . ?y <" + NS + "p5> ?o } LIMIT 100",
+		// blank nodes as join values: the bind join can not ship them
+		"SELECT ?x ?o WHERE { ?x <" + NS + "owner> ?b . ?b <" + NS + "label> ?o }",
+	};
+
+	/** subjects per database that own a blank node with two labels */
+	protected static final int BLANK_NODES = 10;
+
+
+	public static void main(String[] args) throws Exception {
+		int triples = args.length > 0 ? Integer.parseInt(args[0]) : TRIPLES;
+
+		System.out.println(DATABASES + " databases of " + triples + " triples");
+		_run(triples, false);
+		System.out.println(DATABASES + " databases of " + triples + " triples + half of the next database's triples");
+		_run(triples, true);
+	}
+
+
+	/* protected methods */
+	/**
+	 * @param overlapping true: database k also contains half of the triples of database k+1
+	 *                    => the federated results must not contain a triple once per database
+	 */
+	protected static void _run(int triples, boolean overlapping) throws Exception {
+		List<Node> nodes = new ArrayList<Node>();
+		for (int k=0; k<DATABASES; k++) {
+			nodes.add(new Node("Node" + k, "localhost", 2221 + k));
+		}
+		DummyIO io = new DummyIO(nodes);
+		for (int k=0; k<DATABASES; k++) {
+			DummyDatabase database = new DummyDatabase("db" + k);
+			_fill(database.getModel(), k, triples / 2);
+			if (overlapping) _fill(database.getModel(), (k + 1) % DATABASES, triples / 4);
+			_addBlankNodes(database.getModel(), k);
+			io.register(nodes.get(k), database);
+		}
+		Database[] databases = io.getDatabases().toArray(new Database[DATABASES]);
+
+		System.out.println("query\tfederated [ms]\tunion view [ms]\tresults");
+		for (int q=0; q<QUERIES.length; q++) {
+			long federated = Long.MAX_VALUE;
+			long union = Long.MAX_VALUE;
+			int results = 0;
+			int expected = 0;
+			for (int run=0; run<RUNS; run++) {
+				long start = System.nanoTime();
+				results = _count(io.executeFederated(QUERIES[q], databases));
+				federated = Math.min(federated, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				expected = _count(io.execute(QUERIES[q], databases));
+				union = Math.min(union, System.nanoTime() - start);
+			}
+			if (results != expected) {
+				throw new IllegalStateException("Query " + q + ": " + results + " results, expected " + expected);
+			}
+			System.out.println(q + "\t" + federated / 1e6 + "\t" + union / 1e6 + "\t" + results);
+		}
+	}
+
+	/**
+	 * adds <db{k}/s{i}> <owner> _:b . _:b <label> "..." (2x) for the first BLANK_NODES subjects
+	 */
+	protected static void _addBlankNodes(Model model, int database) {
+		Property owner = model.createProperty(NS + "owner");
+		Property label = model.createProperty(NS + "label");
+		for (int i=0; i<BLANK_NODES; i++) {
+			Resource blank = model.createResource();
+			model.add(model.createResource(NS + "db" + database + "/s" + i), owner, blank);
+			model.add(blank, label, "blank " + database + "/" + i);
+			model.add(blank, label, "label " + database + "/" + i);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.util.FileUtils;
+
+import de.tum.in.fedsparql.inference.dummy.NTriplesLoader;
+
+/**
+ * Loads a generated N-Triples file of TRIPLES triples (first argument overrides TRIPLES):
+ * - jena: Model.read() on the calling thread (the former DummyDatabase(name, file))
+ * - loader: NTriplesLoader with 1 thread and with one thread per core
+ * Reports the best time of LOAD_RUNS runs + triples/s and checks that all variants load the same count.
+ * Run with enough heap, e.g. -Xmx4g.
+ */
+public class NTriplesLoaderBenchmark extends UnionQueryBenchmark {
+
+	protected static final int TRIPLES = 1000000;
+	protected static final int LOAD_RUNS = 3;
+
+	/** Keeps the loader's logger (+ its level) alive across the System.gc() calls*/
+	private static final Logger LOGGER = Logger.getLogger(NTriplesLoader.class.getName());
+
+
+	public static void main(String[] args) throws Exception {
+		int triples = args.length > 0 ? Integer.parseInt(args[0]) : TRIPLES;
+		LOGGER.setLevel(Level.WARNING);
+		File file = File.createTempFile("loader", ".nt");
+		file.deleteOnExit();
+		_write(file, triples);
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println(triples + " triples, " + file.length() / (1024 * 1024) + " MB, " + cores + " cores");
+
+		System.out.println("variant\ttime [ms]\ttriples/s\tloaded");
+		String[] names = new String[]{"jena", "loader 1 thread", "loader " + cores + " threads"};
+		long expected = -1;
+		for (int variant=0; variant<names.length; variant++) {
+			long time = Long.MAX_VALUE;
+			long loaded = 0;
+			for (int run=0; run<LOAD_RUNS; run++) {
+				Model model = ModelFactory.createDefaultModel();
+				System.gc();
+				long start = System.nanoTime();
+				if (variant == 0) {
+					InputStream in = new FileInputStream(file);
+					model.read(in, null, FileUtils.langNTriple);
+					in.close();
+				} else {
+					NTriplesLoader loader = new NTriplesLoader();
+					loader.setThreads(variant == 1 ? 1 : cores);
+					loader.load(file, model.getGraph());
+				}
+				time = Math.min(time, System.nanoTime() - start);
+				loaded = model.size();
+			}
+			if (expected >= 0 && loaded != expected) {
+				throw new IllegalStateException(names[variant] + ": " + loaded + " triples, expected " + expected);
+			}
+			expected = loaded;
+			System.out.println(names[variant] + "\t" + time / 1e6 + "\t" + Math.round(loaded / (time / 1e9)) + "\t" + loaded);
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * writes subjects with a URI, a plain, a language-tagged and a typed object + some escapes + blank nodes
+	 */
+	protected static void _write(File file, int triples) throws Exception {
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+		for (int i=0; i<triples; i++) {
+			String subject = i % 50 == 0 ? "_:b" + (i / 4) : "<" + NS + "s" + (i / 4) + ">";
+			switch (i % 4) {
+			case 0: out.write(subject + " <" + NS + "next> <" + NS + "s" + (i / 4 + 1) + "> .\n"); break;
+			case 1: out.write(subject + " <" + NS + "name> \"Name " + i + "\" .\n"); break;
+			case 2: out.write(subject + " <" + NS + "label> \"say \\\"" + i + "\\\"\"@en .\n"); break;
+			default: out.write(subject + " <" + NS + "value> \"" + i + "\"^^<http://www.w3.org/2001/XMLSchema#integer> .\n");
+			}
+		}
+		out.close();
+	}
+}
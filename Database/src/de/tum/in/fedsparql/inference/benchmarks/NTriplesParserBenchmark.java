@@ -0,0 +1,109 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import de.tum.in.fedsparql.inference.dummy.DummyParser;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser.ParsedTerm;
+
+/**
+ * Parses LITERALS literals (first argument overrides LITERALS), plain, with language, typed and with escaped quotes:
+ * - DummyParser.parseLiteral() on strings
+ * - NTriplesParser on strings
+ * - NTriplesParser on one UTF-8 ByteBuffer with a literal per line
+ * Reports the best time of RUNS runs + the bytes allocated per literal (HotSpot only).
+ * Also counts the literals DummyParser parses differently (escaped quotes, plain literals as language "en").
+ */
+@SuppressWarnings("deprecation") // measures the deprecated DummyParser it replaces
+public class NTriplesParserBenchmark extends TypedResultSetBenchmark {
+
+	protected static final int LITERALS = 2000000;
+
+
+	public static void main(String[] args) throws Exception {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : LITERALS;
+
+		String[] literals = new String[count];
+		StringBuilder lines = new StringBuilder();
+		for (int i=0; i<count; i++) {
+			switch (i % 4) {
+			case 0: literals[i] = "\"value " + i + "\""; break;
+			case 1: literals[i] = "\"Wert " + i + "\"@de"; break;
+			case 2: literals[i] = "\"" + i + "\"^^<http://www.w3.org/2001/XMLSchema#integer>"; break;
+			default: literals[i] = "\"say \\\"" + i + "\\\"\\n\"@en";
+			}
+			lines.append(literals[i]).append('\n');
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(Charset.forName("UTF-8")));
+		System.out.println(count + " literals, " + buffer.limit() + " bytes");
+
+		System.out.println("variant\ttime [ms]\tns/literal\tbytes/literal\tchecksum");
+		String[] names = new String[]{"DummyParser", "NTriplesParser strings", "NTriplesParser bytes"};
+		for (int variant=0; variant<names.length; variant++) {
+			long time = Long.MAX_VALUE;
+			long bytes = 0;
+			long checksum = 0;
+			for (int run=0; run<RUNS; run++) {
+				long allocated = _allocatedBytes();
+				long start = System.nanoTime();
+				checksum = _parse(variant, literals, buffer);
+				time = Math.min(time, System.nanoTime() - start);
+				bytes = _allocatedBytes() - allocated;
+			}
+			System.out.println(names[variant] + "\t" + time / 1e6 + "\t" + (double) time / count + "\t"
+					+ (bytes < 0 ? "n/a" : String.valueOf((double) bytes / count)) + "\t" + checksum);
+		}
+		System.out.println("literals parsed differently by DummyParser: " + _differences(literals));
+	}
+
+
+	/* protected methods */
+	/**
+	 * @return the sum of the value lengths
+	 */
+	protected static long _parse(int variant, String[] literals, ByteBuffer buffer) {
+		long checksum = 0;
+		switch (variant) {
+		case 0:
+			for (String literal : literals) {
+				DummyParser.ParsedLiteral parsed = DummyParser.parseLiteral(literal);
+				checksum += parsed.value.length();
+			}
+			return checksum;
+		case 1: {
+			NTriplesParser parser = new NTriplesParser();
+			ParsedTerm term = new ParsedTerm();
+			for (String literal : literals) {
+				parser.parseTerm(literal, 0, literal.length(), term);
+				checksum += term.getValueLength();
+			}
+			return checksum;
+		}
+		default: {
+			NTriplesParser parser = new NTriplesParser();
+			ParsedTerm term = new ParsedTerm();
+			int position = 0;
+			int limit = buffer.limit();
+			while (position < limit) {
+				position = parser.parseTerm(buffer, position, limit, term) + 1;
+				checksum += term.getValueLength();
+			}
+			return checksum;
+		}
+		}
+	}
+
+	protected static int _differences(String[] literals) {
+		NTriplesParser parser = new NTriplesParser();
+		ParsedTerm term = new ParsedTerm();
+		int differences = 0;
+		for (String literal : literals) {
+			DummyParser.ParsedLiteral parsed = DummyParser.parseLiteral(literal);
+			parser.parseTerm(literal, 0, literal.length(), term);
+			String type = term.getDatatype() != null ? term.getDatatype() : term.getLanguage();
+			if (!parsed.value.equals(term.getValue()) || !parsed.type.equals(type)) differences++;
+		}
+		return differences;
+	}
+}
@@ -0,0 +1,213 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.io.Node;
+import de.tum.in.fedsparql.rts.executor.FSException;
+import de.tum.in.fedsparql.rts.executor.FSResultSet;
+import de.tum.in.fedsparql.rts.executor.FSTypedResultSet;
+
+/**
+ * Reads all TRIPLES triples of a database (first argument overrides TRIPLES):
+ * - former: the former DummyResultSet, renders every row eagerly
+ * - strings: DummyResultSet.next(), renders every row
+ * - typed: DummyResultSet.advance() + getTerm(), checks the object's type without rendering
+ * - copy strings / copy typed: writes the rows to another database, via strings re-parsed by DummyParser vs via terms
+ * Reports the best time of RUNS runs + the bytes allocated per row (HotSpot only).
+ */
+public class TypedResultSetBenchmark extends UnionQueryBenchmark {
+
+	protected static final int TRIPLES = 1000000;
+	protected static final int COPY_TRIPLES = 200000;
+	protected static final String QUERY = "SELECT ?s ?p ?o WHERE { ?s ?p ?o }";
+
+
+	public static void main(String[] args) throws Exception {
+		int triples = args.length > 0 ? Integer.parseInt(args[0]) : TRIPLES;
+
+		List<Node> nodes = new ArrayList<Node>();
+		nodes.add(new Node("Node1", "localhost", 2221));
+		DummyIO io = new DummyIO(nodes);
+		DummyDatabase database = new DummyDatabase("db0");
+		_fill(database.getModel(), 0, triples / 2);
+		io.register(nodes.get(0), database);
+		DummyDatabase small = new DummyDatabase("db1");
+		_fill(small.getModel(), 1, Math.min(triples, COPY_TRIPLES) / 2);
+		io.register(nodes.get(0), small);
+		System.out.println(triples + " triples, copies of " + small.getSize() + " triples");
+
+		System.out.println("variant\ttime [ms]\tbytes/row\tliterals");
+		for (int variant=0; variant<5; variant++) {
+			long time = Long.MAX_VALUE;
+			long bytes = 0;
+			long literals = 0;
+			for (int run=0; run<RUNS; run++) {
+				long allocated = _allocatedBytes();
+				long start = System.nanoTime();
+				literals = _run(variant, io, variant < 3 ? database : small);
+				time = Math.min(time, System.nanoTime() - start);
+				bytes = _allocatedBytes() - allocated;
+			}
+			int rows = variant < 3 ? database.getSize() : small.getSize();
+			System.out.println(_name(variant) + "\t" + time / 1e6 + "\t" + (bytes < 0 ? "n/a" : String.valueOf(bytes / rows)) + "\t" + literals);
+		}
+	}
+
+
+	/* protected methods */
+	protected static String _name(int variant) {
+		return new String[]{"former", "strings", "typed", "copy strings", "copy typed"}[variant];
+	}
+
+	/**
+	 * @return the number of literal objects
+	 */
+	protected static long _run(int variant, DummyIO io, DummyDatabase database) throws FSException {
+		long literals = 0;
+		switch (variant) {
+		case 0: {
+			FSResultSet rs = new FormerResultSet(QueryExecutionFactory.create(QUERY, database.getModel()).execSelect());
+			int o = rs.column("o");
+			while (rs.hasNext()) {
+				if (rs.next()[o].startsWith("\"")) literals++;
+			}
+			return literals;
+		}
+		case 1: {
+			FSResultSet rs = io.execute(QUERY, database);
+			int o = rs.column("o");
+			while (rs.hasNext()) {
+				if (rs.next()[o].startsWith("\"")) literals++;
+			}
+			return literals;
+		}
+		case 2: {
+			FSTypedResultSet rs = (FSTypedResultSet) io.execute(QUERY, database);
+			int o = rs.column("o");
+			while (rs.hasNext()) {
+				rs.advance();
+				if (rs.getTerm(o).isLiteral()) literals++;
+			}
+			return literals;
+		}
+		case 3: {
+			DummyDatabase target = new DummyDatabase();
+			FSResultSet rs = io.execute(QUERY, database);
+			int s = rs.column("s"), p = rs.column("p"), o = rs.column("o");
+			while (rs.hasNext()) {
+				String[] row = rs.next();
+				if (row[o].startsWith("\"")) literals++;
+				io.writeTriple(target, row[s], row[p], row[o]);
+			}
+			return literals;
+		}
+		default: {
+			DummyDatabase target = new DummyDatabase();
+			FSTypedResultSet rs = (FSTypedResultSet) io.execute(QUERY, database);
+			int s = rs.column("s"), p = rs.column("p"), o = rs.column("o");
+			while (rs.hasNext()) {
+				rs.advance();
+				if (rs.getTerm(o).isLiteral()) literals++;
+				io.writeTriple(target, rs.getTerm(s), rs.getTerm(p), rs.getTerm(o));
+			}
+			return literals;
+		}
+		}
+	}
+
+	/**
+	 * Bytes allocated by the current thread, -1 if unsupported
+	 */
+	protected static long _allocatedBytes() {
+		try {
+			return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+		} catch (Throwable t) {
+			return -1;
+		}
+	}
+
+	/**
+	 * The former DummyResultSet
+	 */
+	protected static class FormerResultSet implements FSResultSet {
+		private String[] header = null;
+		private Map<String, Integer> column = null;
+		private ResultSet rs = null;
+		private String[] next = null;
+
+		public FormerResultSet(ResultSet rs) {
+			if (!rs.hasNext()) return;
+			QuerySolution sol = rs.next();
+			List<String> vars = new ArrayList<String>();
+			Iterator<String> varnames = sol.varNames();
+			while (varnames.hasNext()) {
+				vars.add(varnames.next());
+			}
+			header = vars.toArray(new String[vars.size()]);
+			column = new HashMap<String, Integer>();
+			for (int i=0; i<header.length; i++) {
+				column.put(header[i], i);
+			}
+			next = toArray(sol);
+			this.rs = rs;
+		}
+
+		private String[] toArray(QuerySolution sol) {
+			String[] array = new String[header.length];
+			int index = 0;
+			Iterator<String> varnames = sol.varNames();
+			while (varnames.hasNext()) {
+				array[index++] = toString(sol.get(varnames.next()));
+			}
+			return array;
+		}
+
+		private String toString(RDFNode node) {
+			if (node.isResource()) {
+				return "<" + node.toString() + ">";
+			}
+			Literal l = node.asLiteral();
+			if (l.getDatatypeURI() != null) {
+				return "\"" + l.getValue() + "\"^^<" + l.getDatatypeURI() + ">";
+			}
+			return "\"" + l.getValue() + "\"";
+		}
+
+		public void close() {
+		}
+
+		public String[] getHeader() {
+			return header;
+		}
+
+		public int column(String name) {
+			return column != null ? column.get(name) : -1;
+		}
+
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		public String[] next() {
+			String[] result = next;
+			next = rs.hasNext() ? toArray(rs.next()) : null;
+			return result;
+		}
+
+		public void remove() {
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package de.tum.in.fedsparql.inference.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyResultSet;
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.Node;
+import de.tum.in.fedsparql.rts.executor.FSResultSet;
+
+/**
+ * Queries across DATABASES databases of TRIPLES triples each (first argument overrides TRIPLES):
+ * DummyIO.execute() on a union view vs copying all databases into a new model per query (the former implementation).
+ *
+ * Database k contains for every i: <db{k}/s{i}> <p{i%10}> "i" and <db{k}/s{i}> <next> <db{k+1}/s{i}>,
+ * the queries follow the <next> links across the databases.
+ * Run with enough heap, e.g. -Xmx4g.
+ */
+public class UnionQueryBenchmark {
+
+	protected static final int DATABASES = 3;
+	protected static final int TRIPLES = 1000000;
+	protected static final int RUNS = 5;
+	protected static final String NS = "http://example.org/";
+
+	protected static final String[] QUERIES = new String[]{
+		"SELECT ?p ?o WHERE { <" + NS + "db0/s42> ?p ?o }",
+		"SELECT ?z ?o WHERE { <" + NS + "db0/s42> <" + NS + "next> ?y . ?y <" + NS + "next> ?z . ?z <" + NS + "p2> ?o }",
+	};
+
+
+	public static void main(String[] args) throws Exception {
+		int triples = args.length > 0 ? Integer.parseInt(args[0]) : TRIPLES;
+
+		List<Node> nodes = new ArrayList<Node>();
+		nodes.add(new Node("Node1", "localhost", 2221));
+		DummyIO io = new DummyIO(nodes);
+		Database[] databases = new Database[DATABASES];
+		for (int k=0; k<DATABASES; k++) {
+			databases[k] = new DummyDatabase("db" + k);
+			_fill(((DummyDatabase) databases[k]).getModel(), k, triples / 2);
+			io.register(nodes.get(0), databases[k]);
+		}
+		System.out.println(DATABASES + " databases of " + triples + " triples");
+
+		System.out.println("query\tunion view [ms]\tcopy [ms]\tresults");
+		for (int q=0; q<QUERIES.length; q++) {
+			long union = Long.MAX_VALUE;
+			long copy = Long.MAX_VALUE;
+			int results = 0;
+			for (int run=0; run<RUNS; run++) {
+				long start = System.nanoTime();
+				results = _count(io.execute(QUERIES[q], databases));
+				union = Math.min(union, System.nanoTime() - start);
+
+				start = System.nanoTime();
+				_count(_executeOnCopy(QUERIES[q], databases));
+				copy = Math.min(copy, System.nanoTime() - start);
+			}
+			System.out.println(q + "\t" + union / 1e6 + "\t" + copy / 1e6 + "\t" + results);
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * adds `subjects` subjects with 2 triples each
+	 */
+	protected static void _fill(Model model, int database, int subjects) {
+		Property next = model.createProperty(NS + "next");
+		Property[] properties = new Property[10];
+		for (int p=0; p<properties.length; p++) {
+			properties[p] = model.createProperty(NS + "p" + p);
+		}
+
+		for (int i=0; i<subjects; i++) {
+			Resource subject = model.createResource(NS + "db" + database + "/s" + i);
+			model.add(subject, properties[i % properties.length], String.valueOf(i));
+			model.add(subject, next, model.createResource(NS + "db" + (database + 1) + "/s" + i));
+		}
+	}
+
+	/**
+	 * the former DummyIO.execute() for several databases
+	 */
+	protected static FSResultSet _executeOnCopy(String query, Database[] databases) {
+		Model model = ModelFactory.createDefaultModel();
+		for (Database b : databases) {
+			model.add(((DummyDatabase) b).getModel());
+		}
+		QueryExecution e = QueryExecutionFactory.create(query, model);
+		return new DummyResultSet(e.execSelect());
+	}
+
+	protected static int _count(FSResultSet resultSet) {
+		int count = 0;
+		while (resultSet.hasNext()) {
+			resultSet.next();
+			count++;
+		}
+		return count;
+	}
+}
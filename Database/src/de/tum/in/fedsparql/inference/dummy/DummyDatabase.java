@@ -1,18 +1,24 @@
 package de.tum.in.fedsparql.inference.dummy;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
-import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.AnonId;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
-import com.hp.hpl.jena.rdf.model.Property;
-import com.hp.hpl.jena.rdf.model.Resource;
-import com.hp.hpl.jena.util.FileUtils;
 
-import de.tum.in.fedsparql.inference.dummy.DummyParser.ParsedLiteral;
+import de.tum.in.fedsparql.inference.io.BatchWriter;
 import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.rts.executor.FSTerm;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser.ParsedTerm;
 
 /**
  * A dummy implementation of the database interface based on a jena in-memory database. V-1
@@ -28,6 +34,12 @@ public class DummyDatabase implements Database {
 	/** The database*/
 	private Model model = null;
 
+	/** Parses the triples written as strings*/
+	private final NTriplesParser parser = new NTriplesParser();
+
+	/** Subject, predicate and object parsed by the parser*/
+	private final ParsedTerm[] terms = new ParsedTerm[]{new ParsedTerm(), new ParsedTerm(), new ParsedTerm()};
+
 	/** 
 	 * Creates a new jena (empty) database with default name
 	 * @param name
@@ -54,9 +66,27 @@ public class DummyDatabase implements Database {
 	 * @throws FileNotFoundException 
 	 */
 	public DummyDatabase(String name, String file) throws FileNotFoundException{
+		this(name, file, new NTriplesLoader());
+	}
+
+	/** 
+	 * Creates a new jena database containing the triples
+	 * from the given file, loaded by the given loader. RDF format must be "N-Triples"
+	 * @param name
+	 * @param file
+	 * @param loader
+	 * @throws FileNotFoundException 
+	 */
+	public DummyDatabase(String name, String file, NTriplesLoader loader) throws FileNotFoundException{
 		this.name = name;
 		this.model = ModelFactory.createDefaultModel();
-		this.model.read(new FileInputStream(new File(file)), null, FileUtils.langNTriple);
+		File f = new File(file);
+		if (!f.isFile()) throw new FileNotFoundException(file);
+		try {
+			loader.load(f, this.model.getGraph());
+		} catch (IOException e) {
+			throw new RuntimeException("Error loading " + file, e);
+		}
 	}
 	
 	/**
@@ -94,24 +124,109 @@ public class DummyDatabase implements Database {
 	 * @param object
 	 */
 	public void write(String subject, String predicate, String object) {
-		
-		Resource s = model.createResource(subject.substring(1, subject.length()-1));
-		Property p = model.createProperty(predicate.substring(1, predicate.length()-1));
-		
-		if (object.startsWith("<")){
-			Resource o = model.createResource(object.substring(1, object.length()-1));
-			model.add(model.createStatement(s, p, o));
+		model.getGraph().add(toTriple(subject, predicate, object));
+	}
+
+	/**
+	 * Writes a triple of terms, e.g. from an FSTypedResultSet, to the database
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 */
+	public void write(FSTerm subject, FSTerm predicate, FSTerm object) {
+		model.getGraph().add(Triple.create(toNode(subject), toNode(predicate), toNode(object)));
+	}
+
+	/**
+	 * Opens a batch of triples for this database, they are added at once on commit()
+	 * @return
+	 */
+	public BatchWriter openBatch() {
+		return new Batch();
+	}
+
+	/**
+	 * Parses a triple, checks it like NTriplesParser.parseTriple() does
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @return
+	 * @throws IllegalArgumentException if a term is invalid, the subject a literal or the predicate no URI
+	 */
+	private Triple toTriple(String subject, String predicate, String object) {
+		synchronized (parser){
+			parseTerm(subject, terms[0]);
+			if (terms[0].getType()==FSTerm.Type.LITERAL) throw new IllegalArgumentException("Literal as subject: " + subject);
+			parseTerm(predicate, terms[1]);
+			if (terms[1].getType()!=FSTerm.Type.URI) throw new IllegalArgumentException("Predicate must be a URI: " + predicate);
+			parseTerm(object, terms[2]);
+			return Triple.create(toNode(terms[0]), toNode(terms[1]), toNode(terms[2]));
+		}
+	}
+
+	/**
+	 * Parses a whole string as one term, like FSTerm.valueOf()
+	 * @param term
+	 * @param parsed the result
+	 * @throws IllegalArgumentException if the string contains more than the term
+	 */
+	private void parseTerm(String term, ParsedTerm parsed) {
+		int end = parser.parseTerm(term, 0, term.length(), parsed);
+		if (end!=term.length()) throw new IllegalArgumentException("Invalid term: " + term);
+	}
+
+	/**
+	 * Converts a term into a jena node, terms of a DummyResultSet already wrap one
+	 * @param term
+	 * @return
+	 */
+	static Node toNode(FSTerm term) {
+		if (term instanceof DummyResultSet.Term){
+			return ((DummyResultSet.Term)term).getNode();
+		}
+		switch (term.getType()){
+		case URI:
+			return Node.createURI(term.getValue());
+		case BLANK:
+			return Node.createAnon(new AnonId(term.getValue()));
+		default:
+			RDFDatatype datatype = term.getDatatype()==null ? null : TypeMapper.getInstance().getSafeTypeByName(term.getDatatype());
+			return Node.createLiteral(term.getValue(), term.getLanguage()==null ? "" : term.getLanguage(), datatype);
 		}
-		else {
-			ParsedLiteral pl = DummyParser.parseLiteral(object);
-			Literal l = null;
-			if (pl.datatype){
-				l = model.createTypedLiteral(pl.value, pl.type);
-			}
-			else {
-				l = model.createLiteral(pl.value, pl.type);
-			}
-			model.add(model.createStatement(s, p, l));
+	}
+
+	/**
+	 * Converts the triples when they are added + adds them to the graph in one bulk update
+	 */
+	private class Batch extends BatchWriter {
+
+		/** The converted triples*/
+		private final List<Triple> triples = new ArrayList<Triple>();
+
+		@Override
+		public void add(String subject, String predicate, String object) {
+			triples.add(toTriple(subject, predicate, object));
+		}
+
+		@Override
+		public void add(FSTerm subject, FSTerm predicate, FSTerm object) {
+			triples.add(Triple.create(toNode(subject), toNode(predicate), toNode(object)));
+		}
+
+		@Override
+		public int getSize() {
+			return triples.size();
+		}
+
+		@Override
+		public void commit() {
+			model.getGraph().getBulkUpdateHandler().add(triples);
+			triples.clear();
+		}
+
+		@Override
+		public void abort() {
+			triples.clear();
 		}
 	}
 }
@@ -1,22 +1,26 @@
 package de.tum.in.fedsparql.inference.dummy;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.hp.hpl.jena.graph.compose.MultiUnion;
 import com.hp.hpl.jena.query.QueryExecution;
 import com.hp.hpl.jena.query.QueryExecutionFactory;
 import com.hp.hpl.jena.query.ResultSet;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
 
+import de.tum.in.fedsparql.inference.io.BatchWriter;
 import de.tum.in.fedsparql.inference.io.Database;
 import de.tum.in.fedsparql.inference.io.Database.Type;
 import de.tum.in.fedsparql.inference.io.IO;
 import de.tum.in.fedsparql.inference.io.Node;
 import de.tum.in.fedsparql.rts.executor.FSException;
 import de.tum.in.fedsparql.rts.executor.FSResultSet;
+import de.tum.in.fedsparql.rts.executor.FSTerm;
 
 public class DummyIO extends IO{
 	
@@ -66,19 +70,13 @@ public class DummyIO extends IO{
 		// Prepare model(s)
 		Model model = null;
 		if (databases==null){
-			model = ModelFactory.createDefaultModel();
-			for (Database b : this.databases){
-				model.add(((DummyDatabase)b).getModel());
-			}
+			model = getUnionModel(this.databases);
 		}
 		else if (databases.length==1){
 			model = ((DummyDatabase)databases[0]).getModel();
 		}
 		else{
-			model = ModelFactory.createDefaultModel();
-			for (Database b : databases){
-				model.add(((DummyDatabase)b).getModel());
-			}
+			model = getUnionModel(Arrays.asList(databases));
 		}
 		
 		// Execute query
@@ -87,6 +85,23 @@ public class DummyIO extends IO{
 		return new DummyResultSet(rs);
 	}
 
+	/**
+	 * Returns a read-only union view of the databases' models, no triples are copied.
+	 * Queries see the current content of the databases.
+	 * @param databases
+	 * @return
+	 */
+	private Model getUnionModel(List<Database> databases){
+		if (databases.size()==1){
+			return ((DummyDatabase)databases.get(0)).getModel();
+		}
+		MultiUnion union = new MultiUnion();
+		for (Database b : databases){
+			union.addGraph(((DummyDatabase)b).getModel().getGraph());
+		}
+		return ModelFactory.createModelForGraph(union);
+	}
+
 	@Override
 	public int getSize(Database database) throws FSException {
 		return ((DummyDatabase)database).getSize();
@@ -97,6 +112,16 @@ public class DummyIO extends IO{
 			String object) throws FSException {
 		((DummyDatabase)database).write(subject, predicate, object);
 	}
+
+	@Override
+	public void writeTriple(Database database, FSTerm subject, FSTerm predicate, FSTerm object) throws FSException {
+		((DummyDatabase)database).write(subject, predicate, object);
+	}
+
+	@Override
+	public BatchWriter openBatch(Database database) throws FSException {
+		return ((DummyDatabase)database).openBatch();
+	}
 	
 	/**
 	 * Adds a database to this IO instance
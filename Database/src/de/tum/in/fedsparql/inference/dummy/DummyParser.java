@@ -1,5 +1,10 @@
 package de.tum.in.fedsparql.inference.dummy;
 
+/**
+ * @deprecated Misparses escaped quotes + assumes the language "en" for plain literals,
+ *             use de.tum.in.fedsparql.rts.executor.NTriplesParser
+ */
+@Deprecated
 public class DummyParser {
 
 
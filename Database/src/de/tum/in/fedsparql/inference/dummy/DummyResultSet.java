@@ -1,102 +1,64 @@
 package de.tum.in.fedsparql.inference.dummy;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
-import com.hp.hpl.jena.query.QuerySolution;
+import com.hp.hpl.jena.graph.Node;
 import com.hp.hpl.jena.query.ResultSet;
-import com.hp.hpl.jena.rdf.model.Literal;
-import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.engine.binding.Binding;
 
 import de.tum.in.fedsparql.rts.executor.FSException;
-import de.tum.in.fedsparql.rts.executor.FSResultSet;
+import de.tum.in.fedsparql.rts.executor.FSTerm;
+import de.tum.in.fedsparql.rts.executor.FSTypedResultSet;
 
 /**
- * A jena specific implementation of a result set
+ * A jena specific implementation of a result set. Streams the bindings of the query execution,
+ * terms are rendered on demand.
  * @author prasser
  */
-public class DummyResultSet implements FSResultSet{
+public class DummyResultSet implements FSTypedResultSet{
 
 	/** The header*/
 	private String[] header = null;
-	
+
 	/** The map*/
 	private Map<String, Integer> column = null;
-	
+
+	/** The variables of the columns*/
+	private Var[] vars = null;
+
 	/** The current result set*/
 	private ResultSet rs = null;
-	
-	/** The next element*/
-	private String[] next = null;
-	
+
+	/** The current row*/
+	private Binding binding = null;
+
+	/** The terms of the current row, reused for every row*/
+	private Term[] terms = null;
+
 	/**
 	 * Creates a new result set
 	 * @param rs
 	 */
 	public DummyResultSet(ResultSet rs) {
-		
-		// Break if empty
-		if (!rs.hasNext()) return;
-		
+
 		// Build header and map
-		QuerySolution sol = rs.next();
-		List<String> vars = new ArrayList<String>();
-		Iterator<String> varnames = sol.varNames();
-		while (varnames.hasNext()){
-			vars.add(varnames.next());
-		}
-		header = vars.toArray(new String[vars.size()]);
+		List<String> names = rs.getResultVars();
+		header = names.toArray(new String[names.size()]);
 		column = new HashMap<String, Integer>();
+		vars = new Var[header.length];
+		terms = new Term[header.length];
 		for (int i=0; i<header.length; i++){
 			column.put(header[i], i);
+			vars[i] = Var.alloc(header[i]);
+			terms[i] = new Term();
 		}
-		
-		// Initialize next
-		next = toArray(sol);
 		this.rs = rs;
 	}
 
-	/**
-	 * Converts a query solution into a string array
-	 * @param sol
-	 * @return
-	 */
-	private String[] toArray(QuerySolution sol) {
-		String[] array = new String[header.length];
-		int index = 0;
-		Iterator<String> varnames = sol.varNames();
-		while (varnames.hasNext()){
-			array[index++] = toString(sol.get(varnames.next()));
-		}
-		return array;
-	}
-
-	/**
-	 * Converts a RDFNode to a string
-	 * @param node
-	 * @return
-	 */
-	private String toString(RDFNode node) {
-		if (node.isResource()){
-			return "<"+node.toString()+">";
-		}
-		else if (node.isLiteral()){
-			Literal l = node.asLiteral();
-			if (l.getDatatypeURI()!=null){
-				return "\""+l.getValue()+"\"^^<"+l.getDatatypeURI()+">";
-			}
-			else {
-				return "\""+l.getValue()+"\"";
-			}
-		}
-		else {
-			throw new RuntimeException("Currently unsupported!");
-		}
-	}
-
 	@Override
 	public void close() throws FSException {
 		// Empty by design
@@ -109,20 +71,42 @@ public class DummyResultSet implements FSResultSet{
 
 	@Override
 	public int column(String name) {
-		if (column!=null) return column.get(name);
-		else return -1;
+		Integer index = column.get(name);
+		return index!=null ? index : -1;
 	}
 
 	@Override
 	public boolean hasNext() {
-		return next != null;
+		return rs.hasNext();
+	}
+
+	@Override
+	public void advance() {
+		if (!rs.hasNext()) throw new NoSuchElementException();
+		binding = rs.nextBinding();
+	}
+
+	@Override
+	public FSTerm getTerm(int column) {
+		Node node = binding.get(vars[column]);
+		if (node==null) return null;
+		terms[column].node = node;
+		return terms[column];
+	}
+
+	@Override
+	public String getString(int column) {
+		FSTerm term = getTerm(column);
+		return term!=null ? term.toString() : null;
 	}
 
 	@Override
 	public String[] next() {
-		String[] result = next;
-		if (rs.hasNext()) next = toArray(rs.next());
-		else next = null;
+		advance();
+		String[] result = new String[header.length];
+		for (int i=0; i<result.length; i++){
+			result[i] = getString(i);
+		}
 		return result;
 	}
 
@@ -131,4 +115,44 @@ public class DummyResultSet implements FSResultSet{
 		// Empty by design
 	}
 
+	/**
+	 * A view of a jena node
+	 */
+	static class Term extends FSTerm {
+
+		/** The current node*/
+		private Node node = null;
+
+		/** Returns the current node*/
+		Node getNode() {
+			return node;
+		}
+
+		@Override
+		public Type getType() {
+			if (node.isURI()) return Type.URI;
+			else if (node.isLiteral()) return Type.LITERAL;
+			else if (node.isBlank()) return Type.BLANK;
+			else throw new RuntimeException("Currently unsupported!");
+		}
+
+		@Override
+		public String getValue() {
+			if (node.isURI()) return node.getURI();
+			else if (node.isLiteral()) return node.getLiteralLexicalForm();
+			else return node.getBlankNodeLabel();
+		}
+
+		@Override
+		public String getDatatype() {
+			return node.isLiteral() ? node.getLiteralDatatypeURI() : null;
+		}
+
+		@Override
+		public String getLanguage() {
+			if (!node.isLiteral()) return null;
+			String language = node.getLiteralLanguage();
+			return language==null || language.length()==0 ? null : language;
+		}
+	}
 }
@@ -0,0 +1,270 @@
+package de.tum.in.fedsparql.inference.dummy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.AnonId;
+
+import de.tum.in.fedsparql.rts.executor.FSTerm;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser;
+import de.tum.in.fedsparql.rts.executor.NTriplesParser.ParsedTerm;
+
+/**
+ * Loads N-Triples files into jena graphs: splits the file into chunks at line boundaries,
+ * memory-maps + parses the chunks in parallel and inserts the triples in batches.
+ * Only the inserts are serialized, jena's in-memory graphs are not thread-safe.
+ *
+ * Progress is reported to the ProgressListener and logged (INFO, at most once per second).
+ */
+public class NTriplesLoader {
+
+	/**
+	 * Receives the progress of a load
+	 */
+	public static interface ProgressListener {
+
+		/**
+		 * Called after every batch, by the parsing threads
+		 * @param bytes bytes of the file parsed so far
+		 * @param total size of the file
+		 * @param triples triples inserted so far
+		 * @param triplesPerSecond
+		 */
+		public void progress(long bytes, long total, long triples, double triplesPerSecond);
+	}
+
+	/** The logger*/
+	private static final Logger LOGGER = Logger.getLogger(NTriplesLoader.class.getName());
+
+	/** Makes the blank node labels of different loads distinct*/
+	private static final AtomicInteger LOADS = new AtomicInteger();
+
+	/** Count of parsing threads*/
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/** Bytes per chunk*/
+	private int chunkSize = 16 * 1024 * 1024;
+
+	/** Triples per insert*/
+	private int batchSize = 10000;
+
+	/** The listener, may be null*/
+	private ProgressListener listener = null;
+
+	/** Sets the count of parsing threads*/
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/** Sets the bytes per chunk*/
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/** Sets the triples per insert*/
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/** Sets the listener, may be null*/
+	public void setProgressListener(ProgressListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Loads the file into the graph
+	 * @param file
+	 * @param graph
+	 * @return the count of triples in the file
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the file is no valid N-Triples
+	 */
+	public long load(File file, final Graph graph) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		final FileChannel channel = raf.getChannel();
+		ExecutorService executor = null;
+		try {
+			final long size = channel.size();
+			final String prefix = "load" + LOADS.incrementAndGet() + "_";
+			final long start = System.nanoTime();
+			final AtomicLong bytes = new AtomicLong();
+			final AtomicLong triples = new AtomicLong();
+			final AtomicLong logged = new AtomicLong(start);
+
+			List<long[]> chunks = split(channel, size);
+			executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())));
+			List<Future<?>> futures = new ArrayList<Future<?>>();
+			for (final long[] chunk : chunks){
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+						parse(buffer, chunk[0], prefix, graph, new Batch() {
+							@Override
+							public void inserted(int count, long parsed) {
+								long done = triples.addAndGet(count);
+								long read = bytes.addAndGet(parsed);
+								report(read, size, done, start, logged);
+							}
+						});
+						return null;
+					}
+				}));
+			}
+
+			for (Future<?> future : futures){
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException(e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+					if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+					throw new IOException(e.getCause());
+				}
+			}
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+			if (seconds>=1d){
+				LOGGER.info(file.getName() + ": " + triples.get() + " triples in " + String.format("%.1f", seconds) + "s, "
+						+ Math.round(triples.get() / seconds) + " triples/s");
+			}
+			return triples.get();
+		} finally {
+			if (executor!=null) executor.shutdownNow();
+			raf.close();
+		}
+	}
+
+	/**
+	 * Called by a chunk's parser after each insert
+	 */
+	private static interface Batch {
+		public void inserted(int count, long parsed);
+	}
+
+	/**
+	 * Splits the file into chunks of about chunkSize bytes that end after a line break
+	 * @param channel
+	 * @param size
+	 * @return start (inclusive) + end (exclusive) of every chunk
+	 * @throws IOException
+	 */
+	private List<long[]> split(FileChannel channel, long size) throws IOException {
+		List<long[]> chunks = new ArrayList<long[]>();
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long start = 0;
+		while (start<size){
+			long end = Math.min(size, start + chunkSize);
+
+			// Move the end behind the next line break
+			search: while (end<size){
+				buffer.clear();
+				int read = channel.read(buffer, end);
+				if (read<=0) break;
+				for (int i=0; i<read; i++){
+					if (buffer.get(i)=='\n'){
+						end += i + 1;
+						break search;
+					}
+				}
+				end += read;
+			}
+			end = Math.min(end, size);
+			chunks.add(new long[]{start, end});
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * Parses the lines of a chunk + inserts the triples in batches
+	 * @param buffer the chunk
+	 * @param offset position of the chunk in the file
+	 * @param prefix of the blank node labels
+	 * @param graph
+	 * @param batch
+	 */
+	private void parse(ByteBuffer buffer, long offset, String prefix, Graph graph, Batch batch) {
+		NTriplesParser parser = new NTriplesParser();
+		ParsedTerm subject = new ParsedTerm();
+		ParsedTerm predicate = new ParsedTerm();
+		ParsedTerm object = new ParsedTerm();
+		List<Triple> triples = new ArrayList<Triple>(batchSize);
+
+		int limit = buffer.limit();
+		int start = 0;
+		int parsed = 0;
+		while (start<limit){
+			int end = start;
+			while (end<limit && buffer.get(end)!='\n') end++;
+
+			try {
+				if (parser.parseTriple(buffer, start, end, subject, predicate, object)){
+					triples.add(Triple.create(toNode(subject, prefix), toNode(predicate, prefix), toNode(object, prefix)));
+				}
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(e.getMessage() + " in the line starting at byte " + (offset + start), e);
+			}
+			start = end + 1;
+
+			if (triples.size()==batchSize){
+				insert(graph, triples);
+				batch.inserted(batchSize, Math.min(start, limit) - parsed);
+				parsed = Math.min(start, limit);
+				triples.clear();
+			}
+		}
+		insert(graph, triples);
+		batch.inserted(triples.size(), limit - parsed);
+	}
+
+	/** Inserts the triples, one insert at a time*/
+	private void insert(Graph graph, List<Triple> triples) {
+		if (triples.isEmpty()) return;
+		synchronized (graph){
+			graph.getBulkUpdateHandler().add(triples);
+		}
+	}
+
+	/** Converts a term, blank nodes are local to the load*/
+	private Node toNode(ParsedTerm term, String prefix) {
+		if (term.getType()==FSTerm.Type.BLANK) return Node.createAnon(new AnonId(prefix + term.getValue()));
+		return DummyDatabase.toNode(term);
+	}
+
+	/** Notifies the listener + logs at most once per second*/
+	private void report(long bytes, long total, long triples, long start, AtomicLong logged) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double triplesPerSecond = seconds>0 ? triples / seconds : 0d;
+		if (listener!=null){
+			listener.progress(bytes, total, triples, triplesPerSecond);
+		}
+
+		long last = logged.get();
+		long now = System.nanoTime();
+		if (now - last >= 1000000000L && logged.compareAndSet(last, now) && LOGGER.isLoggable(Level.INFO)){
+			LOGGER.info(String.format("%.1f%% (%d of %d bytes), %d triples, %d triples/s",
+					100d * bytes / total, bytes, total, triples, Math.round(triplesPerSecond)));
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package de.tum.in.fedsparql.inference.io;
+
+import de.tum.in.fedsparql.rts.executor.FSException;
+import de.tum.in.fedsparql.rts.executor.FSTerm;
+
+/**
+ * Collects triples for a database and writes them in one batch on commit().
+ * Nothing is written before commit(), abort() discards the triples added since the last commit().
+ */
+public abstract class BatchWriter {
+
+	/**
+	 * Adds a triple to the batch
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @throws FSException
+	 */
+	public abstract void add(String subject, String predicate, String object) throws FSException;
+
+	/**
+	 * Adds a triple of terms, e.g. from an FSTypedResultSet, to the batch.
+	 * The terms may be reused by the caller after this call.
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @throws FSException
+	 */
+	public void add(FSTerm subject, FSTerm predicate, FSTerm object) throws FSException {
+		add(subject.toString(), predicate.toString(), object.toString());
+	}
+
+	/** Returns the count of triples added since the last commit()*/
+	public abstract int getSize();
+
+	/**
+	 * Writes the triples added since the last commit() to the database
+	 * @throws FSException
+	 */
+	public abstract void commit() throws FSException;
+
+	/** Discards the triples added since the last commit()*/
+	public abstract void abort();
+}
@@ -0,0 +1,279 @@
+package de.tum.in.fedsparql.inference.io;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves cached Loads of another Monitoring.
+ *
+ * The loads of all tracked nodes (every node monitor() was called for or passed to track())
+ * are polled in the background every pollInterval ms, or pushed via update().
+ * monitor() returns the last sample without locking, it only polls synchronously if the sample is older than maxStaleness ms:
+ * one caller polls the node, concurrent callers keep the stale sample meanwhile (or wait for the poll if there is none).
+ * getSmoothedLoad() returns the exponentially weighted moving average of the samples.
+ */
+public class CachedMonitoring extends Monitoring {
+
+	/**
+	 * Immutable state of a node, replaced with every sample.
+	 */
+	public static class Snapshot {
+		/** last sample */
+		public final Load load;
+		/** EWMA of the samples */
+		public final Load smoothed;
+		/** System.nanoTime() of the last sample */
+		public final long timestamp;
+		public final long samples;
+
+		public Snapshot(Load load, Load smoothed, long timestamp, long samples) {
+			this.load = load;
+			this.smoothed = smoothed;
+			this.timestamp = timestamp;
+			this.samples = samples;
+		}
+
+		/**
+		 * @return age of the last sample [ms]
+		 */
+		public long getAge() {
+			return (System.nanoTime() - timestamp) / 1000000;
+		}
+	}
+
+	/**
+	 * @param source monitoring to poll
+	 * @param pollInterval [ms] between two background polls, <= 0: no background polling
+	 * @param maxStaleness [ms] max age of a sample returned by monitor()
+	 */
+	public CachedMonitoring(Monitoring source, long pollInterval, long maxStaleness) {
+		this.source = source;
+		this.pollInterval = pollInterval;
+		this.maxStaleness = maxStaleness;
+	}
+
+	public CachedMonitoring(Monitoring source) {
+		this(source, 100, 500);
+	}
+
+	/**
+	 * @return the last sample of the node, polled synchronously if there is none or it is too old
+	 */
+	@Override
+	public Load monitor(Node node) {
+		return getSnapshot(node).load;
+	}
+
+	/**
+	 * @return EWMA of the node's samples, polled synchronously if there is none or the last one is too old
+	 */
+	public Load getSmoothedLoad(Node node) {
+		return getSnapshot(node).smoothed;
+	}
+
+	/**
+	 * @return the node's current snapshot, polled synchronously if there is none or it is too old
+	 *         (the stale one while another thread polls the node)
+	 */
+	public Snapshot getSnapshot(Node node) {
+		Snapshot snapshot = snapshots.get(node);
+		if (snapshot == null || snapshot.getAge() > maxStaleness) {
+			track(node);
+			snapshot = refresh(node, snapshot);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return the node's current snapshot without polling, null if there is none
+	 */
+	public Snapshot getCachedSnapshot(Node node) {
+		return snapshots.get(node);
+	}
+
+	/**
+	 * Polls the nodes' loads in the background from now on.
+	 */
+	public void track(Collection<Node> nodes) {
+		for (Node node : nodes) {
+			track(node);
+		}
+	}
+
+	public void track(Node node) {
+		tracked.putIfAbsent(node, Boolean.TRUE);
+		if (poller == null && pollInterval > 0 && !shutdown) {
+			startPolling();
+		}
+	}
+
+	/**
+	 * Adds a sample received from outside, e.g. pushed by the node.
+	 */
+	public void update(Node node, Load load) {
+		track(node);
+
+		// retry if a concurrent update replaced the snapshot
+		while (true) {
+			Snapshot previous = snapshots.get(node);
+			Snapshot snapshot = previous == null
+					? new Snapshot(load, load, System.nanoTime(), 1)
+					: new Snapshot(load, smooth(previous.smoothed, load), System.nanoTime(), previous.samples + 1);
+
+			if (previous == null ? snapshots.putIfAbsent(node, snapshot) == null : snapshots.replace(node, previous, snapshot)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stops the background polling for good, monitor() still polls stale nodes.
+	 */
+	public synchronized void shutdown() {
+		shutdown = true;
+		if (poller != null) {
+			poller.shutdownNow();
+			poller = null;
+		}
+	}
+
+	public long getPollInterval() {
+		return pollInterval;
+	}
+
+	public long getMaxStaleness() {
+		return maxStaleness;
+	}
+
+	public void setMaxStaleness(long maxStaleness) {
+		this.maxStaleness = maxStaleness;
+	}
+
+	public double getSmoothingFactor() {
+		return alpha;
+	}
+
+	/**
+	 * @param alpha weight of a new sample in the EWMA (0..1], 1: no smoothing
+	 */
+	public void setSmoothingFactor(double alpha) {
+		this.alpha = alpha;
+	}
+
+
+	/* protected methods */
+	/**
+	 * Polls the node unless another thread already does.
+	 *
+	 * @param stale the node's last snapshot, returned while another thread polls, null: wait for that poll
+	 * @return the polled snapshot, or the stale one
+	 */
+	protected Snapshot refresh(final Node node, Snapshot stale) {
+		FutureTask<Snapshot> refresh = refreshes.get(node);
+		if (refresh == null) {
+			FutureTask<Snapshot> created = new FutureTask<Snapshot>(new Callable<Snapshot>() {
+				@Override
+				public Snapshot call() {
+					return poll(node);
+				}
+			});
+			refresh = refreshes.putIfAbsent(node, created);
+			if (refresh == null) {
+				try {
+					created.run();
+				} finally {
+					refreshes.remove(node, created);
+				}
+				refresh = created;
+			} else if (stale != null) {
+				return stale;
+			}
+		} else if (stale != null) {
+			return stale;
+		}
+
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return refresh.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * polls the source + adds the sample
+	 */
+	protected Snapshot poll(Node node) {
+		update(node, source.monitor(node));
+		return snapshots.get(node);
+	}
+
+	protected Load smooth(Load smoothed, Load sample) {
+		return new Load(alpha * sample.io + (1 - alpha) * smoothed.io, alpha * sample.cpu + (1 - alpha) * smoothed.cpu);
+	}
+
+	protected synchronized void startPolling() {
+		if (poller != null || pollInterval <= 0 || shutdown) {
+			return;
+		}
+
+		poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "CachedMonitoring");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		poller.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				for (Node node : tracked.keySet()) {
+					try {
+						refresh(node, snapshots.get(node));
+					} catch (RuntimeException e) {
+						// keep the last sample, monitor() polls synchronously once it is stale
+					}
+				}
+			}
+		}, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+	}
+
+
+	/* protected members */
+	protected final Monitoring source;
+	protected final long pollInterval;
+	protected volatile long maxStaleness;
+	protected volatile double alpha = 0.3;
+
+	protected final ConcurrentMap<Node, Snapshot> snapshots = new ConcurrentHashMap<Node, Snapshot>();
+	protected final ConcurrentMap<Node, Boolean> tracked = new ConcurrentHashMap<Node, Boolean>();
+	/** node => its poll in progress */
+	protected final ConcurrentMap<Node, FutureTask<Snapshot>> refreshes = new ConcurrentHashMap<Node, FutureTask<Snapshot>>();
+	private volatile ScheduledExecutorService poller = null;
+	private volatile boolean shutdown = false;
+}
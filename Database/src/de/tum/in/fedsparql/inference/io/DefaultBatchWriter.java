@@ -0,0 +1,55 @@
+package de.tum.in.fedsparql.inference.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tum.in.fedsparql.rts.executor.FSException;
+
+/**
+ * Batch writer for IO implementations without bulk support: buffers the triples,
+ * commit() writes them one by one with IO.writeTriple()
+ */
+class DefaultBatchWriter extends BatchWriter {
+
+	/** The IO*/
+	private final IO io;
+
+	/** The database*/
+	private final Database database;
+
+	/** The buffered triples*/
+	private final List<String[]> triples = new ArrayList<String[]>();
+
+	/**
+	 * Creates a new writer
+	 * @param io
+	 * @param database
+	 */
+	DefaultBatchWriter(IO io, Database database) {
+		this.io = io;
+		this.database = database;
+	}
+
+	@Override
+	public void add(String subject, String predicate, String object) {
+		triples.add(new String[]{subject, predicate, object});
+	}
+
+	@Override
+	public int getSize() {
+		return triples.size();
+	}
+
+	@Override
+	public void commit() throws FSException {
+		for (String[] triple : triples){
+			io.writeTriple(database, triple[0], triple[1], triple[2]);
+		}
+		triples.clear();
+	}
+
+	@Override
+	public void abort() {
+		triples.clear();
+	}
+}
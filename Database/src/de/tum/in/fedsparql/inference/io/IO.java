@@ -5,6 +5,9 @@ import java.util.List;
 import de.tum.in.fedsparql.inference.io.Database.Type;
 import de.tum.in.fedsparql.rts.executor.FSException;
 import de.tum.in.fedsparql.rts.executor.FSResultSet;
+import de.tum.in.fedsparql.rts.executor.FSTerm;
+import de.tum.in.fedsparql.rts.executor.FSTypedResultSet;
+import de.tum.in.fedsparql.rts.executor.FederatedExecutor;
 
 /**
  * Interface for the rules engine.
@@ -29,7 +32,19 @@ public abstract class IO {
 	 * @return
 	 */
 	public abstract FSResultSet execute(String query, Database... databases) throws FSException;
-	
+
+	/**
+	 * Executes the given query on the given set of databases. Basic graph patterns are split into
+	 * sub-queries per triple pattern and database, which are evaluated in parallel and joined while streaming.
+	 * @param query
+	 * @param databases null: all databases
+	 * @return
+	 * @throws FSException
+	 */
+	public FSResultSet executeFederated(String query, Database... databases) throws FSException{
+		return new FederatedExecutor(this).execute(query, databases);
+	}
+
 	/**
 	 * Writes a triple to the given database.
 	 * @param database
@@ -38,7 +53,112 @@ public abstract class IO {
 	 * @param object
 	 */
 	public abstract void writeTriple(Database database, String subject, String predicate, String object) throws FSException;
+
+	/**
+	 * Writes a triple of terms, e.g. from an FSTypedResultSet, to the given database.
+	 * @param database
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 */
+	public void writeTriple(Database database, FSTerm subject, FSTerm predicate, FSTerm object) throws FSException{
+		writeTriple(database, subject.toString(), predicate.toString(), object.toString());
+	}
 	
+	/**
+	 * Opens a batch of triples for the given database, the triples are written on BatchWriter.commit().
+	 * @param database
+	 * @return
+	 * @throws FSException
+	 */
+	public BatchWriter openBatch(Database database) throws FSException{
+		return new DefaultBatchWriter(this, database);
+	}
+
+	/**
+	 * Writes triples to the given database in one batch.
+	 * @param database
+	 * @param triples subject, predicate and object of each triple
+	 * @throws FSException
+	 */
+	public void writeTriples(Database database, List<String[]> triples) throws FSException{
+		BatchWriter batch = openBatch(database);
+		for (String[] triple : triples){
+			batch.add(triple[0], triple[1], triple[2]);
+		}
+		batch.commit();
+	}
+
+	/**
+	 * Writes a triple per row of the result set to the given database in one batch and closes the result set.
+	 * Subject, predicate and object are either a variable of the result set ("?name") or a constant ("<uri>", literal).
+	 * Rows in which a variable is unbound are skipped.
+	 * @param database
+	 * @param rs
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @return the count of written triples
+	 * @throws FSException
+	 */
+	public int writeTriples(Database database, FSResultSet rs, String subject, String predicate, String object) throws FSException{
+		String[] pattern = new String[]{subject, predicate, object};
+		int[] columns = new int[3];
+		for (int i=0; i<3; i++){
+			columns[i] = pattern[i].startsWith("?") ? rs.column(pattern[i].substring(1)) : -1;
+			if (pattern[i].startsWith("?") && columns[i]<0){
+				// Result sets without rows may not know their variables
+				boolean empty = !rs.hasNext();
+				rs.close();
+				if (empty) return 0;
+				throw new FSException("Unknown variable: " + pattern[i]);
+			}
+		}
+
+		BatchWriter batch = openBatch(database);
+		try {
+			// Typed result sets: terms are passed on without rendering
+			if (rs instanceof FSTypedResultSet){
+				FSTypedResultSet typed = (FSTypedResultSet)rs;
+				FSTerm[] constants = new FSTerm[3];
+				for (int i=0; i<3; i++){
+					if (columns[i]<0) constants[i] = FSTerm.valueOf(pattern[i]);
+				}
+				FSTerm[] triple = new FSTerm[3];
+				while (typed.hasNext()){
+					typed.advance();
+					boolean bound = true;
+					for (int i=0; i<3; i++){
+						triple[i] = columns[i]<0 ? constants[i] : typed.getTerm(columns[i]);
+						if (triple[i]==null) bound = false;
+					}
+					if (bound) batch.add(triple[0], triple[1], triple[2]);
+				}
+			}
+			else {
+				String[] triple = new String[3];
+				while (rs.hasNext()){
+					String[] row = rs.next();
+					boolean bound = true;
+					for (int i=0; i<3; i++){
+						triple[i] = columns[i]<0 ? pattern[i] : row[columns[i]];
+						if (triple[i]==null) bound = false;
+					}
+					if (bound) batch.add(triple[0], triple[1], triple[2]);
+				}
+			}
+		} catch (RuntimeException e) {
+			batch.abort();
+			throw e;
+		} finally {
+			rs.close();
+		}
+
+		int size = batch.getSize();
+		batch.commit();
+		return size;
+	}
+
 	/**
 	 * Creates a new persistent database.
 	 * @param node
@@ -115,5 +235,15 @@ public abstract class IO {
 	 * @return
 	 */
 	public abstract Node getNodeForDatabase(Database database);
+	
+	/**
+	 * Returns the node on which the database with the given name is hosted
+	 * @param name
+	 * @return the node or null if no such database is known
+	 */
+	public Node getNodeForDatabase(String name){
+		Database database = getDatabaseByName(name);
+		return database == null ? null : getNodeForDatabase(database);
+	}
 
 }
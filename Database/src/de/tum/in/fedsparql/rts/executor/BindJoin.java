@@ -0,0 +1,150 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.IO;
+
+/**
+ * Joins the rows of an operator with a triple pattern by shipping the bindings to the databases:
+ * reads a batch of left rows, queries the pattern instantiated with the batch's values of the first common variable
+ * on all sources in parallel + hash joins the batch with the results.
+ * Cheaper than scanning the whole pattern if the left side has few rows.
+ * Blank nodes can not be shipped: left rows binding one are joined with a single scan of the whole pattern at the end.
+ */
+class BindJoin extends Operator {
+
+	/** The IO executing the sub-queries*/
+	private final IO io;
+
+	/** The executor running the sub-queries*/
+	private final ExecutorService executor;
+
+	/** The left side*/
+	private final Operator left;
+
+	/** The right side*/
+	private final TriplePattern pattern;
+
+	/** The databases to query*/
+	private final List<Database> sources;
+
+	/** The common variables, at least one*/
+	private final int[] variables;
+
+	/** Count of variables of the whole basic graph pattern*/
+	private final int width;
+
+	/** Max count of left rows per batch*/
+	private final int batchSize;
+
+	/** The join of the current batch*/
+	private Operator batch = null;
+
+	/** Left rows whose value of the first common variable is a blank node*/
+	private List<String[]> blankRows = new ArrayList<String[]>();
+
+	/**
+	 * Creates a new join
+	 * @param io
+	 * @param executor
+	 * @param left
+	 * @param pattern
+	 * @param sources
+	 * @param variables the common variables
+	 * @param width count of variables of the whole basic graph pattern
+	 * @param batchSize max count of left rows per sub-query
+	 */
+	BindJoin(IO io, ExecutorService executor, Operator left, TriplePattern pattern, List<Database> sources,
+			int[] variables, int width, int batchSize) {
+		this.io = io;
+		this.executor = executor;
+		this.left = left;
+		this.pattern = pattern;
+		this.sources = sources;
+		this.variables = variables;
+		this.width = width;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (batch==null || !batch.hasNext()){
+			if (!left.hasNext()){
+				if (blankRows.isEmpty()) return false;
+
+				// hash join the rows binding blank nodes with the whole pattern
+				Operator scan = new PatternScan(io, executor, pattern, sources, pattern.toQuery(), width);
+				batch = new HashJoin(new RowList(blankRows), scan, variables);
+				blankRows = new ArrayList<String[]>();
+				continue;
+			}
+
+			// next batch of left rows + their distinct values
+			List<String[]> rows = new ArrayList<String[]>(batchSize);
+			Set<String> values = new LinkedHashSet<String>();
+			while (rows.size()<batchSize && left.hasNext()){
+				String[] row = left.next();
+				if (row[variables[0]].startsWith("_:")){
+					blankRows.add(row);
+					continue;
+				}
+				rows.add(row);
+				values.add(row[variables[0]]);
+			}
+			if (rows.isEmpty()) continue;
+
+			String query = pattern.toQuery(variables[0], values);
+			Operator scan = query!=null ? new PatternScan(io, executor, pattern, sources, query, width)
+			                            : new RowList(new ArrayList<String[]>());
+			batch = new HashJoin(new RowList(rows), scan, variables);
+		}
+		return true;
+	}
+
+	@Override
+	public String[] next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return batch.next();
+	}
+
+	@Override
+	public void close() {
+		left.close();
+		if (batch!=null) batch.close();
+	}
+
+	/**
+	 * Rows that are already materialized
+	 */
+	static class RowList extends Operator {
+
+		/** The rows*/
+		private final Iterator<String[]> rows;
+
+		RowList(List<String[]> rows) {
+			this.rows = rows.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rows.hasNext();
+		}
+
+		@Override
+		public String[] next() {
+			return rows.next();
+		}
+
+		@Override
+		public void close() {
+			// Empty by design
+		}
+	}
+}
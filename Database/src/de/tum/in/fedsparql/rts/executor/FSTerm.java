@@ -0,0 +1,158 @@
+package de.tum.in.fedsparql.rts.executor;
+
+/**
+ * An RDF term of a result set. The string representation used by FSResultSet.next()
+ * ("<uri>", "\"value\"", "\"value\"@lang" or "\"value\"^^<datatype>", N-Triples syntax) is only built on demand.
+ */
+public abstract class FSTerm {
+
+	/**
+	 * The kinds of terms
+	 */
+	public static enum Type {
+		URI,
+		LITERAL,
+		BLANK
+	}
+
+	/**
+	 * Parses a term from its string representation
+	 * @param term "<uri>", "_:label", "\"value\"", "\"value\"@lang" or "\"value\"^^<datatype>" (N-Triples syntax)
+	 * @return
+	 */
+	public static FSTerm valueOf(String term) {
+		NTriplesParser.ParsedTerm parsed = new NTriplesParser.ParsedTerm();
+		int end = new NTriplesParser().parseTerm(term, 0, term.length(), parsed);
+		if (end!=term.length()) throw new IllegalArgumentException("Invalid term: " + term);
+		return new Constant(parsed.getType(), parsed.getValue(), parsed.getDatatype(), parsed.getLanguage());
+	}
+
+	/** Returns the kind of this term*/
+	public abstract Type getType();
+
+	/** Returns the URI, the lexical form of the literal or the label of the blank node*/
+	public abstract String getValue();
+
+	/** Returns the datatype URI of a typed literal, null otherwise*/
+	public abstract String getDatatype();
+
+	/** Returns the language tag of a literal, null if there is none*/
+	public abstract String getLanguage();
+
+	/** Returns whether this term is a URI*/
+	public boolean isURI() {
+		return getType()==Type.URI;
+	}
+
+	/** Returns whether this term is a literal*/
+	public boolean isLiteral() {
+		return getType()==Type.LITERAL;
+	}
+
+	/** Returns whether this term is a blank node*/
+	public boolean isBlank() {
+		return getType()==Type.BLANK;
+	}
+
+	/**
+	 * Appends the string representation of this term, literals are escaped as in N-Triples
+	 * @param builder
+	 * @return the builder
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		switch (getType()){
+		case URI:
+			return builder.append('<').append(getValue()).append('>');
+		case BLANK:
+			return builder.append("_:").append(getValue());
+		default:
+			appendEscaped(builder.append('"'), getValue()).append('"');
+			String language = getLanguage();
+			String datatype = getDatatype();
+			if (language!=null) builder.append('@').append(language);
+			else if (datatype!=null) builder.append("^^<").append(datatype).append('>');
+			return builder;
+		}
+	}
+
+	/**
+	 * Returns the string representation of this term
+	 */
+	@Override
+	public String toString() {
+		String value = getValue();
+		if (isURI()) return "<" + value + ">";
+		if (isLiteral() && getLanguage()==null && getDatatype()==null && !needsEscaping(value)) return "\"" + value + "\"";
+		return appendTo(new StringBuilder(value.length() + 64)).toString();
+	}
+
+	/** Returns whether the value contains chars that are escaped in literals*/
+	private static boolean needsEscaping(String value) {
+		for (int i=0; i<value.length(); i++){
+			char c = value.charAt(i);
+			if (c=='"' || c=='\\' || c=='\n' || c=='\r') return true;
+		}
+		return false;
+	}
+
+	/** Appends the value of a literal with escaped quotes, backslashes + line breaks*/
+	private static StringBuilder appendEscaped(StringBuilder builder, String value) {
+		if (!needsEscaping(value)) return builder.append(value);
+		for (int i=0; i<value.length(); i++){
+			char c = value.charAt(i);
+			switch (c){
+			case '"': builder.append("\\\""); break;
+			case '\\': builder.append("\\\\"); break;
+			case '\n': builder.append("\\n"); break;
+			case '\r': builder.append("\\r"); break;
+			default: builder.append(c);
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * A parsed term
+	 */
+	private static class Constant extends FSTerm {
+
+		/** The type*/
+		private final Type type;
+
+		/** The value*/
+		private final String value;
+
+		/** The datatype*/
+		private final String datatype;
+
+		/** The language*/
+		private final String language;
+
+		Constant(Type type, String value, String datatype, String language) {
+			this.type = type;
+			this.value = value;
+			this.datatype = datatype;
+			this.language = language;
+		}
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+
+		@Override
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public String getDatatype() {
+			return datatype;
+		}
+
+		@Override
+		public String getLanguage() {
+			return language;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package de.tum.in.fedsparql.rts.executor;
+
+/**
+ * A result set that is read row by row as typed terms. Terms are only rendered
+ * into strings if asked for, next() still returns the rendered row.
+ *
+ * Usage: while (rs.hasNext()) { rs.advance(); FSTerm s = rs.getTerm(0); ... }
+ */
+public interface FSTypedResultSet extends FSResultSet {
+
+	/** Moves to the next row without rendering it*/
+	public void advance();
+
+	/**
+	 * Returns a term of the current row. The term may be reused for the next row,
+	 * it is only valid until the next call of advance() or next().
+	 * @param column
+	 * @return null if the variable is unbound
+	 */
+	public FSTerm getTerm(int column);
+
+	/**
+	 * Returns the string representation of a term of the current row
+	 * @param column
+	 * @return null if the variable is unbound
+	 */
+	public String getString(int column);
+}
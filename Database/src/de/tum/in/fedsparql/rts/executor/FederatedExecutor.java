@@ -0,0 +1,380 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryException;
+import com.hp.hpl.jena.query.QueryFactory;
+import com.hp.hpl.jena.sparql.core.TriplePath;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.syntax.Element;
+import com.hp.hpl.jena.sparql.syntax.ElementGroup;
+import com.hp.hpl.jena.sparql.syntax.ElementPathBlock;
+import com.hp.hpl.jena.sparql.syntax.ElementTriplesBlock;
+
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.IO;
+
+/**
+ * Executes SELECT queries consisting of a single basic graph pattern across the databases of a federation.
+ *
+ * 1. Source selection: counts the matches of every triple pattern in every database (in parallel),
+ *    only databases with matches are queried for a pattern. Counts stop at the bind join threshold first,
+ *    they are refined up to a larger limit only if no pattern is below the threshold.
+ * 2. Join order: starts with the pattern with the fewest matches, continues with the connected pattern
+ *    with the fewest matches.
+ * 3. Pipeline: every pattern is evaluated on its databases in parallel (PatternScan), the partial results are joined
+ *    with a bind join if the left side is estimated to be small, with a hash join building the smaller side otherwise.
+ *    The rows stream through the pipeline into the returned FSResultSet.
+ *
+ * Other queries (OPTIONAL, FILTER, UNION, aggregates, ORDER BY, ...) are passed to IO.execute().
+ */
+public class FederatedExecutor {
+
+	/** Shared executor for the sub-queries*/
+	private static ExecutorService sharedExecutor = null;
+
+	/** The IO executing the sub-queries*/
+	private final IO io;
+
+	/** The executor running the sub-queries*/
+	private final ExecutorService executor;
+
+	/** Left sides estimated to have at most this many rows are joined with bind joins*/
+	private int bindJoinThreshold = 1000;
+
+	/** Max count of left rows shipped per bind join sub-query*/
+	private int bindJoinBatchSize = 100;
+
+	/** Matches of a pattern are counted up to this limit per database*/
+	private int countLimit = 100000;
+
+	/**
+	 * Creates a new executor using a shared thread pool
+	 * @param io
+	 */
+	public FederatedExecutor(IO io) {
+		this(io, getSharedExecutor());
+	}
+
+	/**
+	 * Creates a new executor
+	 * @param io
+	 * @param executor runs the sub-queries, needs a thread per concurrently queried database
+	 */
+	public FederatedExecutor(IO io, ExecutorService executor) {
+		this.io = io;
+		this.executor = executor;
+	}
+
+	/**
+	 * Executes the query across the databases
+	 * @param query
+	 * @param databases null: all databases
+	 * @return
+	 * @throws FSException
+	 */
+	public FSResultSet execute(String query, Database... databases) throws FSException {
+		Query parsed;
+		try {
+			parsed = QueryFactory.create(query);
+		} catch (QueryException e) {
+			throw new FSException("Invalid query: " + query, e);
+		}
+
+		List<Triple> triples = getBasicGraphPattern(parsed);
+		if (triples==null || triples.isEmpty()){
+			return io.execute(query, databases);
+		}
+
+		// Number the variables
+		Map<String, Integer> index = new LinkedHashMap<String, Integer>();
+		List<TriplePattern> patterns = new ArrayList<TriplePattern>();
+		for (Triple triple : triples){
+			patterns.add(new TriplePattern(triple, index));
+		}
+
+		// Projection
+		List<String> header = new ArrayList<String>();
+		if (parsed.isQueryResultStar()){
+			header.addAll(index.keySet());
+		}
+		else {
+			for (Var var : parsed.getProjectVars()){
+				if (parsed.getProject().hasExpr(var) || !index.containsKey(var.getName())){
+					return io.execute(query, databases);
+				}
+				header.add(var.getName());
+			}
+		}
+		int[] projection = new int[header.size()];
+		for (int i=0; i<projection.length; i++){
+			projection[i] = index.get(header.get(i));
+		}
+
+		// Source selection: counting up to the bind join threshold suffices if a pattern is below it
+		Map<TriplePattern, List<Database>> sources = new LinkedHashMap<TriplePattern, List<Database>>();
+		for (TriplePattern pattern : patterns){
+			sources.put(pattern, databases==null ? io.getDatabases() : Arrays.asList(databases));
+		}
+		sources = selectSources(sources, bindJoinThreshold+1);
+		long min = Long.MAX_VALUE;
+		for (TriplePattern pattern : patterns){
+			min = Math.min(min, pattern.cardinality);
+		}
+		if (min>bindJoinThreshold && countLimit>bindJoinThreshold+1){
+			sources = selectSources(sources, countLimit);
+		}
+		Operator pipeline = null;
+		for (TriplePattern pattern : patterns){
+			if (sources.get(pattern).isEmpty()){
+				pipeline = new BindJoin.RowList(new ArrayList<String[]>());
+			}
+		}
+
+		if (pipeline==null){
+			pipeline = buildPipeline(patterns, sources, index.size());
+		}
+		long limit = parsed.hasLimit() ? parsed.getLimit() : Long.MAX_VALUE;
+		return new FederatedResultSet(header.toArray(new String[header.size()]), projection, pipeline, parsed.isDistinct(), limit);
+	}
+
+	/** Sets the max estimated count of left rows for bind joins*/
+	public void setBindJoinThreshold(int bindJoinThreshold) {
+		this.bindJoinThreshold = bindJoinThreshold;
+	}
+
+	/** Sets the max count of left rows shipped per bind join sub-query*/
+	public void setBindJoinBatchSize(int bindJoinBatchSize) {
+		this.bindJoinBatchSize = bindJoinBatchSize;
+	}
+
+	/** Sets the limit up to which the matches of a pattern are counted per database, should exceed the bind join threshold*/
+	public void setCountLimit(int countLimit) {
+		this.countLimit = countLimit;
+	}
+
+	/**
+	 * Returns the triples of the query if it is a SELECT query consisting of a single basic graph pattern
+	 * (+ projection, DISTINCT, LIMIT), null otherwise
+	 * @param query
+	 * @return
+	 */
+	private List<Triple> getBasicGraphPattern(Query query) {
+		if (!query.isSelectType() || query.hasGroupBy() || query.hasAggregators() || query.hasHaving()
+				|| query.hasOrderBy() || query.hasOffset() || query.hasBindings() || query.hasDatasetDescription()){
+			return null;
+		}
+
+		Element element = query.getQueryPattern();
+		if (element instanceof ElementGroup){
+			List<Element> elements = ((ElementGroup)element).getElements();
+			if (elements.size()!=1) return null;
+			element = elements.get(0);
+		}
+
+		List<Triple> triples = new ArrayList<Triple>();
+		if (element instanceof ElementTriplesBlock){
+			triples.addAll(((ElementTriplesBlock)element).getPattern().getList());
+		}
+		else if (element instanceof ElementPathBlock){
+			for (TriplePath path : ((ElementPathBlock)element).getPattern().getList()){
+				if (!path.isTriple()) return null;
+				triples.add(path.asTriple());
+			}
+		}
+		else {
+			return null;
+		}
+
+		for (Triple triple : triples){
+			if (triple.getSubject().isBlank() || triple.getObject().isBlank()) return null;
+		}
+		return triples;
+	}
+
+	/**
+	 * Counts the matches of every pattern in its candidate databases in parallel
+	 * @param candidates the databases to count per pattern
+	 * @param limit max count per pattern and database
+	 * @return the databases with matches per pattern, sets the patterns' cardinalities
+	 * @throws FSException
+	 */
+	private Map<TriplePattern, List<Database>> selectSources(Map<TriplePattern, List<Database>> candidates, final int limit) throws FSException {
+		Map<TriplePattern, List<Future<Long>>> counts = new LinkedHashMap<TriplePattern, List<Future<Long>>>();
+		for (final TriplePattern pattern : candidates.keySet()){
+			List<Future<Long>> futures = new ArrayList<Future<Long>>();
+			for (final Database database : candidates.get(pattern)){
+				futures.add(executor.submit(new Callable<Long>() {
+					@Override
+					public Long call() throws Exception {
+						return count(pattern, database, limit);
+					}
+				}));
+			}
+			counts.put(pattern, futures);
+		}
+
+		Map<TriplePattern, List<Database>> sources = new LinkedHashMap<TriplePattern, List<Database>>();
+		for (TriplePattern pattern : candidates.keySet()){
+			List<Database> databases = candidates.get(pattern);
+			List<Database> relevant = new ArrayList<Database>();
+			pattern.cardinality = 0;
+			for (int i=0; i<databases.size(); i++){
+				long count = get(counts.get(pattern).get(i));
+				if (count>0){
+					relevant.add(databases.get(i));
+					pattern.cardinality += count;
+				}
+			}
+			sources.put(pattern, relevant);
+		}
+		return sources;
+	}
+
+	/**
+	 * Counts the triples of the database matching the pattern
+	 * @param pattern
+	 * @param database
+	 * @param limit larger counts do not change the plan much but are expensive
+	 * @return
+	 * @throws FSException
+	 */
+	private long count(TriplePattern pattern, Database database, int limit) throws FSException {
+		if (pattern.getBoundness()==0 && pattern.variables[0]!=pattern.variables[1]
+				&& pattern.variables[1]!=pattern.variables[2] && pattern.variables[0]!=pattern.variables[2]){
+			return Math.min(io.getSize(database), limit);
+		}
+
+		String matches = "SELECT * WHERE { " + pattern.toSparql() + " } LIMIT " + limit;
+		FSResultSet rs = io.execute("SELECT (COUNT(*) AS ?count) WHERE { { " + matches + " } }", database);
+		try {
+			if (!rs.hasNext()) return 0;
+			String count = rs.next()[0];
+			int start = count.indexOf('"');
+			int end = count.indexOf('"', start+1);
+			return start>=0 && end>start ? Long.parseLong(count.substring(start+1, end)) : Long.parseLong(count);
+		} finally {
+			rs.close();
+		}
+	}
+
+	/**
+	 * Orders the patterns + chains their operators
+	 * @param patterns
+	 * @param sources
+	 * @param width count of variables
+	 * @return
+	 */
+	private Operator buildPipeline(List<TriplePattern> patterns, Map<TriplePattern, List<Database>> sources, int width) {
+		List<TriplePattern> remaining = new ArrayList<TriplePattern>(patterns);
+		boolean[] bound = new boolean[width];
+
+		TriplePattern first = null;
+		for (TriplePattern pattern : remaining){
+			if (first==null || pattern.cardinality<first.cardinality) first = pattern;
+		}
+		remaining.remove(first);
+		bind(first, bound);
+		Operator pipeline = new PatternScan(io, executor, first, sources.get(first), first.toQuery(), width);
+		long estimate = first.cardinality;
+
+		while (!remaining.isEmpty()){
+			// the connected pattern with the fewest matches, any pattern if none is connected
+			TriplePattern next = null;
+			boolean connected = false;
+			for (TriplePattern pattern : remaining){
+				boolean shares = getCommonVariables(pattern, bound).length>0;
+				if (next==null || (shares && !connected) || (shares==connected && pattern.cardinality<next.cardinality)){
+					next = pattern;
+					connected = shares;
+				}
+			}
+			remaining.remove(next);
+
+			int[] common = getCommonVariables(next, bound);
+			if (common.length>0 && estimate<=bindJoinThreshold && estimate<next.cardinality){
+				pipeline = new BindJoin(io, executor, pipeline, next, sources.get(next), common, width, bindJoinBatchSize);
+			}
+			else {
+				// build the hash table from the side estimated to be smaller
+				Operator scan = new PatternScan(io, executor, next, sources.get(next), next.toQuery(), width);
+				pipeline = estimate<=next.cardinality ? new HashJoin(pipeline, scan, common) : new HashJoin(scan, pipeline, common);
+			}
+			estimate = common.length>0 ? Math.min(estimate, next.cardinality) : estimate * next.cardinality;
+			bind(next, bound);
+		}
+		return pipeline;
+	}
+
+	/**
+	 * Returns the pattern's variables that are already bound
+	 * @param pattern
+	 * @param bound
+	 * @return
+	 */
+	private int[] getCommonVariables(TriplePattern pattern, boolean[] bound) {
+		List<Integer> common = new ArrayList<Integer>();
+		for (int variable : pattern.variables){
+			if (variable>=0 && bound[variable] && !common.contains(variable)) common.add(variable);
+		}
+		int[] result = new int[common.size()];
+		for (int i=0; i<result.length; i++){
+			result[i] = common.get(i);
+		}
+		return result;
+	}
+
+	/** Marks the pattern's variables as bound*/
+	private void bind(TriplePattern pattern, boolean[] bound) {
+		for (int variable : pattern.variables){
+			if (variable>=0) bound[variable] = true;
+		}
+	}
+
+	/**
+	 * Waits for the result of a sub-query
+	 * @param future
+	 * @return
+	 * @throws FSException
+	 */
+	private <T> T get(Future<T> future) throws FSException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FSException(e);
+		} catch (ExecutionException e) {
+			throw new FSException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the shared executor, its daemon threads are created on demand
+	 * @return
+	 */
+	private static synchronized ExecutorService getSharedExecutor() {
+		if (sharedExecutor==null){
+			sharedExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "FederatedExecutor");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return sharedExecutor;
+	}
+}
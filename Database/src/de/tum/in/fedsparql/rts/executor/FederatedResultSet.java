@@ -0,0 +1,112 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The result of a federated query: projects the rows of the operator pipeline,
+ * optionally removes duplicates + stops after the limit.
+ * Failures of sub-queries are thrown as RuntimeException with the FSException as cause.
+ */
+class FederatedResultSet implements FSResultSet {
+
+	/** The header*/
+	private final String[] header;
+
+	/** Column by variable name*/
+	private final Map<String, Integer> column = new HashMap<String, Integer>();
+
+	/** Index of every column's variable in the pipeline's rows*/
+	private final int[] projection;
+
+	/** The pipeline*/
+	private final Operator pipeline;
+
+	/** The returned rows if DISTINCT, null otherwise*/
+	private final Set<List<String>> seen;
+
+	/** Max count of rows to return*/
+	private final long limit;
+
+	/** Count of returned rows*/
+	private long returned = 0;
+
+	/** The next row*/
+	private String[] next = null;
+
+	/**
+	 * Creates a new result set
+	 * @param header
+	 * @param projection
+	 * @param pipeline
+	 * @param distinct
+	 * @param limit
+	 */
+	FederatedResultSet(String[] header, int[] projection, Operator pipeline, boolean distinct, long limit) {
+		this.header = header;
+		this.projection = projection;
+		this.pipeline = pipeline;
+		this.seen = distinct ? new HashSet<List<String>>() : null;
+		this.limit = limit;
+		for (int i=0; i<header.length; i++){
+			column.put(header[i], i);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (returned>=limit){
+			pipeline.close();
+			return false;
+		}
+
+		try {
+			while (next==null && pipeline.hasNext()){
+				String[] row = pipeline.next();
+				String[] projected = new String[projection.length];
+				for (int i=0; i<projection.length; i++){
+					projected[i] = row[projection[i]];
+				}
+				if (seen==null || seen.add(Arrays.asList(projected))) next = projected;
+			}
+		} catch (Operator.FederationException e) {
+			throw new RuntimeException(e.getCause() instanceof FSException ? e.getCause() : new FSException(e.getCause()));
+		}
+		return next!=null;
+	}
+
+	@Override
+	public String[] next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		String[] result = next;
+		next = null;
+		returned++;
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		// Empty by design
+	}
+
+	@Override
+	public String[] getHeader() {
+		return header;
+	}
+
+	@Override
+	public int column(String name) {
+		Integer index = column.get(name);
+		return index!=null ? index : -1;
+	}
+
+	@Override
+	public void close() throws FSException {
+		pipeline.close();
+	}
+}
@@ -0,0 +1,88 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Joins the rows of two operators on their common variables:
+ * builds a hash table of the rows of the smaller side, streams the rows of the other side + probes the table.
+ * Rows are indexed by variable => the result does not depend on which side builds.
+ */
+class HashJoin extends Operator {
+
+	/** The building side*/
+	private final Operator build;
+
+	/** The probing side*/
+	private final Operator probe;
+
+	/** The common variables, none: cross product*/
+	private final int[] variables;
+
+	/** Rows of the building side by join key, null before the first hasNext()*/
+	private Map<String, List<String[]>> table = null;
+
+	/** The current row of the probing side*/
+	private String[] current = null;
+
+	/** The matches of the current row*/
+	private Iterator<String[]> matches = null;
+
+	/**
+	 * Creates a new join
+	 * @param build the side with fewer rows
+	 * @param probe
+	 * @param variables the common variables
+	 */
+	HashJoin(Operator build, Operator probe, int[] variables) {
+		this.build = build;
+		this.probe = probe;
+		this.variables = variables;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (table==null) build();
+
+		while (matches==null || !matches.hasNext()){
+			if (!probe.hasNext()) return false;
+			current = probe.next();
+			List<String[]> rows = table.get(variables.length==0 ? "" : key(current, variables));
+			matches = rows!=null ? rows.iterator() : null;
+		}
+		return true;
+	}
+
+	@Override
+	public String[] next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		return merge(current, matches.next());
+	}
+
+	@Override
+	public void close() {
+		build.close();
+		probe.close();
+	}
+
+	/**
+	 * Reads all rows of the building side into the hash table
+	 */
+	private void build() {
+		table = new HashMap<String, List<String[]>>();
+		while (build.hasNext()){
+			String[] row = build.next();
+			String key = variables.length==0 ? "" : key(row, variables);
+			List<String[]> rows = table.get(key);
+			if (rows==null){
+				rows = new ArrayList<String[]>(1);
+				table.put(key, rows);
+			}
+			rows.add(row);
+		}
+	}
+}
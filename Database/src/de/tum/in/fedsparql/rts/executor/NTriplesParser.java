@@ -0,0 +1,493 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single-pass parser for N-Triples terms and lines. Reads slices of a CharSequence or of a
+ * UTF-8 encoded ByteBuffer (absolute access, the buffer's position is not changed) into reusable
+ * ParsedTerms => parsing allocates nothing once the terms' buffers are large enough.
+ * Escapes (\t \b \n \r \f \" \' \\ \\uXXXX \\UXXXXXXXX) are resolved.
+ *
+ * Not thread-safe, use one parser per thread.
+ */
+public class NTriplesParser {
+
+	/**
+	 * A term parsed into reusable buffers. Valid until it is parsed into again,
+	 * strings are only created on demand.
+	 */
+	public static class ParsedTerm extends FSTerm {
+
+		/** Nothing, a datatype or a language follows the value in the buffer*/
+		private static final int NONE = 0, DATATYPE = 1, LANGUAGE = 2;
+
+		/** The type*/
+		private Type type = null;
+
+		/** Value, followed by the datatype or language*/
+		private char[] buffer = new char[64];
+
+		/** Count of chars in the buffer*/
+		private int length = 0;
+
+		/** Count of chars of the value*/
+		private int valueLength = 0;
+
+		/** What follows the value*/
+		private int suffix = NONE;
+
+		/** The value as string, null if not created yet*/
+		private String value = null;
+
+		/** The last datatype as string, reused while the datatype does not change*/
+		private String datatype = null;
+
+		/** The last language as string, reused while the language does not change*/
+		private String language = null;
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+
+		@Override
+		public String getValue() {
+			if (value==null) value = new String(buffer, 0, valueLength);
+			return value;
+		}
+
+		/** Returns the count of chars of the value*/
+		public int getValueLength() {
+			return valueLength;
+		}
+
+		/** Returns a char of the value*/
+		public char getValueChar(int index) {
+			return buffer[index];
+		}
+
+		@Override
+		public String getDatatype() {
+			if (suffix!=DATATYPE) return null;
+			if (!isSuffix(datatype)) datatype = new String(buffer, valueLength, length - valueLength);
+			return datatype;
+		}
+
+		@Override
+		public String getLanguage() {
+			if (suffix!=LANGUAGE) return null;
+			if (!isSuffix(language)) language = new String(buffer, valueLength, length - valueLength);
+			return language;
+		}
+
+		/** Returns whether the string equals the datatype or language in the buffer*/
+		private boolean isSuffix(String string) {
+			if (string==null || string.length()!=length - valueLength) return false;
+			for (int i=valueLength; i<length; i++){
+				if (buffer[i]!=string.charAt(i - valueLength)) return false;
+			}
+			return true;
+		}
+
+		/** Starts a new term*/
+		private void reset(Type type) {
+			this.type = type;
+			this.length = 0;
+			this.valueLength = 0;
+			this.suffix = NONE;
+			this.value = null;
+		}
+
+		/** Appends a char*/
+		private void append(char c) {
+			if (length==buffer.length){
+				char[] larger = new char[buffer.length * 2];
+				System.arraycopy(buffer, 0, larger, 0, length);
+				buffer = larger;
+			}
+			buffer[length++] = c;
+		}
+
+		/** Makes room for the given count of chars*/
+		private void ensureCapacity(int count) {
+			if (length + count > buffer.length){
+				char[] larger = new char[Math.max(buffer.length * 2, length + count)];
+				System.arraycopy(buffer, 0, larger, 0, length);
+				buffer = larger;
+			}
+		}
+
+		/** Appends a code point*/
+		private void appendCodePoint(int codePoint) {
+			if (codePoint<Character.MIN_SUPPLEMENTARY_CODE_POINT){
+				append((char)codePoint);
+			}
+			else {
+				codePoint -= Character.MIN_SUPPLEMENTARY_CODE_POINT;
+				append((char)(Character.MIN_HIGH_SURROGATE + (codePoint>>>10)));
+				append((char)(Character.MIN_LOW_SURROGATE + (codePoint & 0x3FF)));
+			}
+		}
+	}
+
+	/** The chars to parse, null when parsing bytes*/
+	private CharSequence chars = null;
+
+	/** The chars to parse if they are a String*/
+	private String string = null;
+
+	/** The bytes to parse, null when parsing chars*/
+	private ByteBuffer bytes = null;
+
+	/** The array backing the bytes, null for direct buffers*/
+	private byte[] array = null;
+
+	/** Index of the buffer's first byte in the array*/
+	private int offset = 0;
+
+	/** The current position*/
+	private int position = 0;
+
+	/** The end of the slice*/
+	private int limit = 0;
+
+	/**
+	 * Parses a term
+	 * @param input
+	 * @param start
+	 * @param end
+	 * @param term the result
+	 * @return the position after the term
+	 */
+	public int parseTerm(CharSequence input, int start, int end, ParsedTerm term) {
+		begin(input, null, start, end);
+		try {
+			parseTerm(term);
+			return position;
+		} finally {
+			chars = null;
+			string = null;
+		}
+	}
+
+	/**
+	 * Parses a term
+	 * @param input UTF-8
+	 * @param start
+	 * @param end
+	 * @param term the result
+	 * @return the position after the term
+	 */
+	public int parseTerm(ByteBuffer input, int start, int end, ParsedTerm term) {
+		begin(null, input, start, end);
+		try {
+			parseTerm(term);
+			return position;
+		} finally {
+			bytes = null;
+			array = null;
+		}
+	}
+
+	/**
+	 * Parses a line "subject predicate object ."
+	 * @param input
+	 * @param start
+	 * @param end
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @return false if the line is empty or a comment
+	 */
+	public boolean parseTriple(CharSequence input, int start, int end, ParsedTerm subject, ParsedTerm predicate, ParsedTerm object) {
+		begin(input, null, start, end);
+		try {
+			return parseTriple(subject, predicate, object);
+		} finally {
+			chars = null;
+			string = null;
+		}
+	}
+
+	/**
+	 * Parses a line "subject predicate object ."
+	 * @param input UTF-8
+	 * @param start
+	 * @param end
+	 * @param subject
+	 * @param predicate
+	 * @param object
+	 * @return false if the line is empty or a comment
+	 */
+	public boolean parseTriple(ByteBuffer input, int start, int end, ParsedTerm subject, ParsedTerm predicate, ParsedTerm object) {
+		begin(null, input, start, end);
+		try {
+			return parseTriple(subject, predicate, object);
+		} finally {
+			bytes = null;
+			array = null;
+		}
+	}
+
+	/** Sets the input*/
+	private void begin(CharSequence chars, ByteBuffer bytes, int start, int end) {
+		this.chars = chars;
+		this.string = chars instanceof String ? (String)chars : null;
+		this.bytes = bytes;
+		this.array = bytes!=null && bytes.hasArray() ? bytes.array() : null;
+		this.offset = array!=null ? bytes.arrayOffset() : 0;
+		this.position = start;
+		this.limit = end;
+	}
+
+	/** Parses a line*/
+	private boolean parseTriple(ParsedTerm subject, ParsedTerm predicate, ParsedTerm object) {
+		skipWhitespace();
+		if (position==limit || at(position)=='#') return false;
+
+		parseTerm(subject);
+		if (subject.type==FSTerm.Type.LITERAL) throw error("Literal as subject");
+		parseTerm(predicate);
+		if (predicate.type!=FSTerm.Type.URI) throw error("Predicate must be a URI");
+		parseTerm(object);
+
+		skipWhitespace();
+		if (position==limit || at(position)!='.') throw error("Expected '.'");
+		position++;
+		skipWhitespace();
+		if (position<limit && at(position)!='#') throw error("Unexpected content after '.'");
+		return true;
+	}
+
+	/** Parses a term*/
+	private void parseTerm(ParsedTerm term) {
+		skipWhitespace();
+		if (position==limit) throw error("Expected a term");
+
+		int c = at(position);
+		if (c=='<'){
+			term.reset(FSTerm.Type.URI);
+			parseIri(term);
+			term.valueLength = term.length;
+		}
+		else if (c=='"'){
+			term.reset(FSTerm.Type.LITERAL);
+			parseLiteral(term);
+		}
+		else if (c=='_' && position+1<limit && at(position+1)==':'){
+			term.reset(FSTerm.Type.BLANK);
+			parseLabel(term);
+			term.valueLength = term.length;
+		}
+		else {
+			throw error("Expected a term");
+		}
+	}
+
+	/** Parses "<iri>" into the term's buffer*/
+	private void parseIri(ParsedTerm term) {
+		position++;
+		while (true){
+			int end = scan('>');
+			copy(term, end);
+			if (position==limit) throw error("Unterminated IRI");
+			int c = at(position++);
+			if (c=='>') return;
+			else if (c=='\\') parseUnicodeEscape(term);
+			else parseUtf8(term, c);
+		}
+	}
+
+	/** Parses "\"value\"" + an optional "@lang" or "^^<datatype>"*/
+	private void parseLiteral(ParsedTerm term) {
+		position++;
+		while (true){
+			int end = scan('"');
+			copy(term, end);
+			if (position==limit) throw error("Unterminated literal");
+			int c = at(position++);
+			if (c=='"') break;
+			else if (c=='\\') parseEscape(term);
+			else parseUtf8(term, c);
+		}
+		term.valueLength = term.length;
+
+		if (position<limit && at(position)=='@'){
+			position++;
+			term.suffix = ParsedTerm.LANGUAGE;
+			while (position<limit){
+				int c = at(position);
+				if (!((c>='a' && c<='z') || (c>='A' && c<='Z') || (c>='0' && c<='9') || c=='-')) break;
+				term.append((char)c);
+				position++;
+			}
+			if (term.length==term.valueLength) throw error("Empty language tag");
+		}
+		else if (position+1<limit && at(position)=='^' && at(position+1)=='^'){
+			position += 2;
+			if (position==limit || at(position)!='<') throw error("Expected datatype IRI");
+			term.suffix = ParsedTerm.DATATYPE;
+			parseIri(term);
+		}
+	}
+
+	/** Parses "_:label"*/
+	private void parseLabel(ParsedTerm term) {
+		position += 2;
+		while (position<limit){
+			int c = at(position);
+			if (c==' ' || c=='\t' || c=='\r' || c=='\n' || c=='<' || c=='"') break;
+			position++;
+			if (c>=0x80 && bytes!=null) parseUtf8(term, c);
+			else term.append((char)c);
+		}
+		// A label must not end with '.', it is the end of the triple
+		if (term.length>0 && term.buffer[term.length-1]=='.'){
+			term.length--;
+			position--;
+		}
+		if (term.length==0) throw error("Empty blank node label");
+	}
+
+	/** Parses the escape after a '\\' in a literal*/
+	private void parseEscape(ParsedTerm term) {
+		if (position==limit) throw error("Unterminated escape");
+		int c = at(position);
+		switch (c){
+		case 't': term.append('\t'); break;
+		case 'b': term.append('\b'); break;
+		case 'n': term.append('\n'); break;
+		case 'r': term.append('\r'); break;
+		case 'f': term.append('\f'); break;
+		case '"': term.append('"'); break;
+		case '\'': term.append('\''); break;
+		case '\\': term.append('\\'); break;
+		default:
+			parseUnicodeEscape(term);
+			return;
+		}
+		position++;
+	}
+
+	/** Parses "uXXXX" or "UXXXXXXXX" after a '\\'*/
+	private void parseUnicodeEscape(ParsedTerm term) {
+		if (position==limit) throw error("Unterminated escape");
+		int c = at(position++);
+		int digits = c=='u' ? 4 : c=='U' ? 8 : 0;
+		if (digits==0) throw error("Invalid escape");
+		if (position+digits>limit) throw error("Unterminated escape");
+
+		int codePoint = 0;
+		for (int i=0; i<digits; i++){
+			int digit = Character.digit(at(position++), 16);
+			if (digit<0) throw error("Invalid hex digit");
+			codePoint = (codePoint<<4) | digit;
+		}
+		if (!Character.isValidCodePoint(codePoint)) throw error("Invalid code point");
+		term.appendCodePoint(codePoint);
+	}
+
+	/** Decodes a UTF-8 sequence starting with the given byte*/
+	private void parseUtf8(ParsedTerm term, int first) {
+		int codePoint;
+		int following;
+		if ((first & 0xE0)==0xC0){
+			codePoint = first & 0x1F;
+			following = 1;
+		}
+		else if ((first & 0xF0)==0xE0){
+			codePoint = first & 0x0F;
+			following = 2;
+		}
+		else if ((first & 0xF8)==0xF0){
+			codePoint = first & 0x07;
+			following = 3;
+		}
+		else {
+			throw error("Invalid UTF-8");
+		}
+		if (position+following>limit) throw error("Truncated UTF-8");
+		for (int i=0; i<following; i++){
+			int b = at(position++);
+			if ((b & 0xC0)!=0x80) throw error("Invalid UTF-8");
+			codePoint = (codePoint<<6) | (b & 0x3F);
+		}
+		term.appendCodePoint(codePoint);
+	}
+
+	/** Skips spaces, tabs + line breaks*/
+	private void skipWhitespace() {
+		while (position<limit){
+			int c = at(position);
+			if (c!=' ' && c!='\t' && c!='\r' && c!='\n') return;
+			position++;
+		}
+	}
+
+	/**
+	 * Returns the index of the next delimiter, backslash or non-ASCII byte
+	 * @param delimiter
+	 * @return limit if there is none
+	 */
+	private int scan(char delimiter) {
+		if (string!=null){
+			for (int i=position; i<limit; i++){
+				char c = string.charAt(i);
+				if (c==delimiter || c=='\\') return i;
+			}
+		}
+		else if (array!=null){
+			for (int i=position; i<limit; i++){
+				byte b = array[offset + i];
+				if (b==delimiter || b=='\\' || b<0) return i;
+			}
+		}
+		else {
+			for (int i=position; i<limit; i++){
+				int c = at(i);
+				if (c==delimiter || c=='\\' || (bytes!=null && c>=0x80)) return i;
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * Appends the chars up to the index + moves there, they contain no escapes or non-ASCII bytes
+	 * @param term
+	 * @param end
+	 */
+	private void copy(ParsedTerm term, int end) {
+		int count = end - position;
+		term.ensureCapacity(count);
+		if (string!=null){
+			string.getChars(position, end, term.buffer, term.length);
+		}
+		else if (array!=null){
+			char[] buffer = term.buffer;
+			int index = term.length;
+			for (int i=offset + position; i<offset + end; i++){
+				buffer[index++] = (char)array[i];
+			}
+		}
+		else {
+			char[] buffer = term.buffer;
+			int index = term.length;
+			for (int i=position; i<end; i++){
+				buffer[index++] = (char)at(i);
+			}
+		}
+		term.length += count;
+		position = end;
+	}
+
+	/** Returns the char or byte at the index*/
+	private int at(int index) {
+		if (array!=null) return array[offset + index] & 0xFF;
+		return chars!=null ? chars.charAt(index) : bytes.get(index) & 0xFF;
+	}
+
+	/** Returns an exception for the current position*/
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException("Invalid N-Triples: " + message + " at position " + position);
+	}
+}
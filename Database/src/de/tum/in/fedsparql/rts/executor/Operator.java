@@ -0,0 +1,59 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.Iterator;
+
+/**
+ * An operator of the federated execution pipeline.
+ * Produces rows indexed by the variables of the whole basic graph pattern, unbound variables are null.
+ * Failures of the sub-queries are thrown as FederationException.
+ */
+abstract class Operator implements Iterator<String[]> {
+
+	/**
+	 * A failed sub-query
+	 */
+	static class FederationException extends RuntimeException {
+		private static final long serialVersionUID = -2906383924358436925L;
+
+		FederationException(Throwable cause) {
+			super(cause);
+		}
+	}
+
+	/** Stops the operator and its inputs*/
+	public abstract void close();
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Merges two rows that agree on their common variables
+	 * @param left
+	 * @param right
+	 * @return
+	 */
+	static String[] merge(String[] left, String[] right) {
+		String[] row = left.clone();
+		for (int i=0; i<row.length; i++){
+			if (row[i]==null) row[i] = right[i];
+		}
+		return row;
+	}
+
+	/**
+	 * Returns the join key of a row
+	 * @param row
+	 * @param variables
+	 * @return
+	 */
+	static String key(String[] row, int[] variables) {
+		if (variables.length==1) return row[variables[0]];
+		StringBuilder key = new StringBuilder();
+		for (int variable : variables){
+			key.append(row[variable]).append('\u0000');
+		}
+		return key.toString();
+	}
+}
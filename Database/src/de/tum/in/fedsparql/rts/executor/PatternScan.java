@@ -0,0 +1,222 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.IO;
+
+/**
+ * Evaluates a triple pattern on several databases in parallel, one task per database.
+ * The tasks stream their rows through a bounded queue => the consumer sees the first rows
+ * before the slowest database is done.
+ * A triple stored in several databases is returned once, like on the union view of the databases.
+ */
+class PatternScan extends Operator {
+
+	/** Marks the end of a task's rows*/
+	private static final String[] END = new String[0];
+
+	/** Max count of rows waiting in the queue*/
+	private static final int QUEUE_SIZE = 1024;
+
+	/** Milliseconds a task waits for space in the queue before it checks whether the scan was closed*/
+	private static final long OFFER_TIMEOUT = 100;
+
+	/** The IO executing the sub-queries*/
+	private final IO io;
+
+	/** The executor running the tasks*/
+	private final ExecutorService executor;
+
+	/** The pattern*/
+	private final TriplePattern pattern;
+
+	/** The databases to query*/
+	private final List<Database> sources;
+
+	/** The sub-query*/
+	private final String query;
+
+	/** Count of variables of the whole basic graph pattern*/
+	private final int width;
+
+	/** Rows of all tasks*/
+	private final BlockingQueue<String[]> queue = new ArrayBlockingQueue<String[]>(QUEUE_SIZE);
+
+	/** The running tasks, null before the first hasNext()*/
+	private List<Future<?>> tasks = null;
+
+	/** The first failure of a task*/
+	private final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+	/** Count of tasks that are done*/
+	private int finished = 0;
+
+	/** Set by close(), stops the tasks even if they miss the interrupt*/
+	private volatile boolean closed = false;
+
+	/** The pattern's distinct variables*/
+	private final int[] variables;
+
+	/** Keys of the rows returned so far, null for a single database*/
+	private final Set<String> seen;
+
+	/** The next row*/
+	private String[] next = null;
+
+	/**
+	 * Creates a new scan
+	 * @param io
+	 * @param executor
+	 * @param pattern
+	 * @param sources
+	 * @param query the sub-query, selects the pattern's variables
+	 * @param width count of variables of the whole basic graph pattern
+	 */
+	PatternScan(IO io, ExecutorService executor, TriplePattern pattern, List<Database> sources, String query, int width) {
+		this.io = io;
+		this.executor = executor;
+		this.pattern = pattern;
+		this.sources = sources;
+		this.query = query;
+		this.width = width;
+
+		List<Integer> distinct = new ArrayList<Integer>();
+		for (int variable : pattern.variables){
+			if (variable>=0 && !distinct.contains(variable)) distinct.add(variable);
+		}
+		this.variables = new int[distinct.size()];
+		for (int i=0; i<variables.length; i++){
+			variables[i] = distinct.get(i);
+		}
+		this.seen = sources.size()>1 ? new HashSet<String>() : null;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (tasks==null) start();
+
+		try {
+			while (next==null && finished<sources.size()){
+				String[] row = queue.take();
+				if (row==END) finished++;
+				else if (seen==null || seen.add(key(row, variables))) next = row;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new FederationException(e);
+		}
+
+		if (failure.get()!=null){
+			close();
+			throw new FederationException(failure.get());
+		}
+		return next!=null;
+	}
+
+	@Override
+	public String[] next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		String[] row = next;
+		next = null;
+		return row;
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		if (tasks!=null){
+			for (Future<?> task : tasks){
+				task.cancel(true);
+			}
+		}
+		finished = sources.size();
+	}
+
+	/**
+	 * Submits a task per database
+	 */
+	private void start() {
+		tasks = new ArrayList<Future<?>>();
+		for (final Database database : sources){
+			tasks.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						scan(query, database);
+					} catch (InterruptedException e) {
+						// closed
+						return;
+					} catch (Exception e) {
+						failure.compareAndSet(null, e);
+					}
+					try {
+						put(END);
+					} catch (InterruptedException e) {
+						// closed
+					}
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Queries a database + puts its rows into the queue
+	 * @param query
+	 * @param database
+	 * @throws FSException
+	 * @throws InterruptedException
+	 */
+	private void scan(String query, Database database) throws FSException, InterruptedException {
+		FSResultSet rs = io.execute(query, database);
+		try {
+			int[] columns = null;
+			while (rs.hasNext()){
+				String[] result = rs.next();
+				if (columns==null){
+					columns = new int[3];
+					for (int i=0; i<3; i++){
+						columns[i] = pattern.variables[i]>=0 ? rs.column(pattern.terms[i].substring(1)) : -1;
+					}
+				}
+
+				String[] row = new String[width];
+				boolean consistent = true;
+				for (int i=0; i<3; i++){
+					int variable = pattern.variables[i];
+					if (variable<0) continue;
+					String value = result[columns[i]];
+					if (row[variable]!=null && !row[variable].equals(value)) consistent = false;
+					row[variable] = value;
+				}
+				if (consistent && !put(row)) return;
+			}
+		} finally {
+			rs.close();
+		}
+	}
+
+	/**
+	 * Puts a row into the queue, waits for space until the scan is closed
+	 * @param row
+	 * @return false if the scan was closed
+	 * @throws InterruptedException
+	 */
+	private boolean put(String[] row) throws InterruptedException {
+		while (!closed){
+			if (queue.offer(row, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) return true;
+		}
+		return false;
+	}
+}
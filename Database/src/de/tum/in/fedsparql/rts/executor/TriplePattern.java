@@ -0,0 +1,120 @@
+package de.tum.in.fedsparql.rts.executor;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.sparql.util.FmtUtils;
+
+/**
+ * A triple pattern of a basic graph pattern, its variables are numbered across the whole pattern.
+ */
+class TriplePattern {
+
+	/** Subject, predicate and object in SPARQL syntax*/
+	final String[] terms = new String[3];
+
+	/** Index of the variable at each position, -1 for constants*/
+	final int[] variables = new int[3];
+
+	/** Estimated count of matching triples per source, set by the planner*/
+	long cardinality = 0;
+
+	/**
+	 * Creates a new pattern
+	 * @param triple
+	 * @param index index of every variable name
+	 */
+	TriplePattern(Triple triple, Map<String, Integer> index) {
+		Node[] nodes = new Node[]{triple.getSubject(), triple.getPredicate(), triple.getObject()};
+		for (int i=0; i<3; i++){
+			if (nodes[i].isVariable()){
+				String name = nodes[i].getName();
+				if (!index.containsKey(name)) index.put(name, index.size());
+				variables[i] = index.get(name);
+				terms[i] = "?" + name;
+			}
+			else {
+				variables[i] = -1;
+				terms[i] = FmtUtils.stringForNode(nodes[i]);
+			}
+		}
+	}
+
+	/** Returns whether the variable occurs in this pattern*/
+	boolean hasVariable(int variable) {
+		return variables[0]==variable || variables[1]==variable || variables[2]==variable;
+	}
+
+	/**
+	 * Returns the count of bound positions, subject and object weigh more than the predicate
+	 * @return
+	 */
+	int getBoundness() {
+		return (variables[0]<0 ? 2 : 0) + (variables[1]<0 ? 1 : 0) + (variables[2]<0 ? 2 : 0);
+	}
+
+	/** Returns the pattern as SPARQL triple*/
+	String toSparql() {
+		return terms[0] + " " + terms[1] + " " + terms[2] + " .";
+	}
+
+	/**
+	 * Returns a SELECT query for the pattern's variables
+	 * @return
+	 */
+	String toQuery() {
+		return getSelect().append(" WHERE { ").append(toSparql()).append(" }").toString();
+	}
+
+	/**
+	 * Returns a SELECT query for the pattern's variables, the variable restricted to the values:
+	 * a union of the pattern instantiated with each value => the databases can use their indices
+	 * @param variable
+	 * @param values as rendered by the result sets (N-Triples syntax is valid SPARQL)
+	 * @return null if no value can match
+	 */
+	String toQuery(int variable, Collection<String> values) {
+		StringBuilder query = getSelect().append(" WHERE { ");
+		boolean empty = true;
+		for (String value : values){
+			String[] instance = terms.clone();
+			boolean valid = true;
+			for (int i=0; i<3; i++){
+				if (variables[i]!=variable) continue;
+				// literals only match objects, blank nodes can not be shipped
+				if ((i<2 && value.startsWith("\"")) || value.startsWith("_:")) valid = false;
+				instance[i] = value;
+			}
+			if (!valid) continue;
+
+			if (!empty) query.append(" UNION ");
+			query.append("{ ").append(instance[0]).append(' ').append(instance[1]).append(' ').append(instance[2]);
+			query.append(" . BIND(").append(value).append(" AS ?").append(getName(variable)).append(") }");
+			empty = false;
+		}
+		return empty ? null : query.append(" }").toString();
+	}
+
+	/** Returns the name of one of the pattern's variables*/
+	String getName(int variable) {
+		for (int i=0; i<3; i++){
+			if (variables[i]==variable) return terms[i].substring(1);
+		}
+		return null;
+	}
+
+	/** Returns the SELECT clause for the pattern's variables*/
+	private StringBuilder getSelect() {
+		StringBuilder query = new StringBuilder("SELECT");
+		Set<String> selected = new HashSet<String>();
+		for (int i=0; i<3; i++){
+			if (variables[i]>=0 && selected.add(terms[i])) query.append(' ').append(terms[i]);
+		}
+		if (variables[0]<0 && variables[1]<0 && variables[2]<0) query.append(" *");
+		return query;
+	}
+}
@@ -1,15 +1,17 @@
 package de.tum.in.fedsparql.inference.framework.algorithms;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
+import de.tum.in.fedsparql.inference.framework.graph.CompactGraph;
 import de.tum.in.fedsparql.inference.framework.graph.DirectedGraph;
 
 /**
  * Uses the Tarjan-Algorithm to determine the Strongly-Connected-Components of a DirectedGraph.
+ * Runs on the compiled Graph with an explicit stack (no recursion => no StackOverflowError on long chains),
+ * component DirectedGraphs are only built when asked for.
  *
  * @param <Vertex>
  * @see http://de.wikipedia.org/wiki/Algorithmus_von_Tarjan_zur_Bestimmung_starker_Zusammenhangskomponenten
@@ -20,78 +22,180 @@ public class Tarjan {
 	public Tarjan(DirectedGraph<?> graph){
 		if(graph == null) return;
 
-		Set<?> nodeList = graph.getVertices();
-		// initialize vertex indices
-		for (Object v: nodeList) {
-			_vertexIndices.put(v, -1);
-		}
-		// initialize vertex lowlinks
-		for (Object v: nodeList) {
-			_vertexLowlinks.put(v, -1);
-		}
-
-		// start tarjan
-		for (Object v : nodeList)
-		{
-			if(_vertexIndices.get(v) == -1)
-			{
-				tarjan(v, graph);
-			}
+		_graph = graph.compile();
+		_componentIDs = getComponentIDs(_graph);
+		for (int id: _componentIDs) {
+			_componentCount = Math.max(_componentCount, id+1);
 		}
 	}
 
 
 	/* public methods */
+	/**
+	 * Gets all Strongly-Connected-Components as DirectedGraphs (built on first call).
+	 * Ordered like Tarjan completes them (edges between components point to earlier ones).
+	 */
 	public List<DirectedGraph<?>> getSCCs() {
+		if (_SCC == null) {
+			List<DirectedGraph<?>> sccs = new ArrayList<DirectedGraph<?>>(_componentCount);
+			for (int c=0; c<_componentCount; c++) {
+				sccs.add(getSCC(c));
+			}
+			_SCC = sccs;
+		}
 		return _SCC;
 	}
-
-
-	/* protected methods */
-	protected void tarjan(Object vertex, DirectedGraph<?> graph){
-		_vertexIndices.put(vertex, _index);
-		_vertexLowlinks.put(vertex, _index);
-		_index++;
-		_stack.add(0, vertex);
-
-		for (DirectedGraph<?>.Edge e: graph.getEdges(vertex)) {
-			Object n = e.destination;
-			if(_vertexIndices.get(n) == -1){
-				tarjan(n, graph);
-				_vertexLowlinks.put(vertex, Math.min(_vertexLowlinks.get(vertex), _vertexLowlinks.get(n)));
-			}else if(_stack.contains(n)){
-				_vertexLowlinks.put(vertex, Math.min(_vertexLowlinks.get(vertex), _vertexIndices.get(n)));
-			}
+	/**
+	 * @return the count of Strongly-Connected-Components
+	 */
+	public int getComponentCount() {
+		return _componentCount;
+	}
+	/**
+	 * @param vertex
+	 * @return the component-ID of the given Vertex || -1 if it isn't part of the Graph
+	 */
+	public int getComponentID(Object vertex) {
+		if (_graph == null) return -1;
+
+		int v = _graph.getID(vertex);
+		return v>=0 ? _componentIDs[v] : -1;
+	}
+	/**
+	 * Builds the DirectedGraph of a single component: its vertices + the edges between them.
+	 * 
+	 * @param componentID
+	 */
+	public DirectedGraph<Object> getSCC(int componentID) {
+		_bucketMembers();
+
+		DirectedGraph<Object> componentGraph = new DirectedGraph<Object>();
+		for (int m=_memberOffsets[componentID]; m<_memberOffsets[componentID+1]; m++) {
+			componentGraph.addVertex(_graph.getVertex(_members[m]));
 		}
-		if(_vertexLowlinks.get(vertex) == _vertexIndices.get(vertex)){
-			Object n;
-			List<Object> component = new ArrayList<Object>();
-			do {
-				n = _stack.remove(0);
-				component.add(n);
-			} while(n != vertex);
-
-			// create DirectedGraph from component
-			DirectedGraph<Object> componentGraph = new DirectedGraph<Object>();
-			for (Object v: component) {
-				componentGraph.addVertex(v);
+		for (int m=_memberOffsets[componentID]; m<_memberOffsets[componentID+1]; m++) {
+			int v = _members[m];
+			for (int i=_graph.outBegin(v); i<_graph.outEnd(v); i++) {
+				int w = _graph.outTarget(i);
+				if (_componentIDs[w] == componentID) {
+					componentGraph.addEdge(_graph.getVertex(v), _graph.getVertex(w));
+				}
 			}
-			for (Object v: component) {
-				for (DirectedGraph<?>.Edge e: graph.getEdges(v)) {
-					componentGraph.addEdge(e.origin, e.destination);
+		}
+		return componentGraph;
+	}
+
+	/**
+	 * Determines the Strongly-Connected-Components of a compiled Graph without recursion.
+	 * Components are numbered in the order Tarjan completes them, which is a reverse topological order of the condensation:
+	 * every edge between two different components points to the component with the smaller ID.
+	 * 
+	 * @param graph
+	 * @return component-ID for every Vertex-ID
+	 */
+	public static int[] getComponentIDs(CompactGraph<?> graph) {
+		int n = graph.size();
+		int[] index = new int[n];
+		int[] lowlink = new int[n];
+		int[] component = new int[n];
+		Arrays.fill(index, -1);
+
+		// Tarjan's stack + the explicit call stack (vertex, next edge to visit)
+		int[] stack = new int[n];
+		int stackSize = 0;
+		BitSet onStack = new BitSet(n);
+		int[] callVertex = new int[n];
+		int[] callEdge = new int[n];
+		int callSize = 0;
+
+		int nextIndex = 0;
+		int nextComponent = 0;
+		for (int root=0; root<n; root++) {
+			if (index[root] != -1) continue;
+
+			index[root] = lowlink[root] = nextIndex++;
+			stack[stackSize++] = root;
+			onStack.set(root);
+			callVertex[callSize] = root;
+			callEdge[callSize] = graph.outBegin(root);
+			callSize++;
+
+			while (callSize > 0) {
+				int v = callVertex[callSize-1];
+				int e = callEdge[callSize-1];
+
+				if (e < graph.outEnd(v)) {
+					callEdge[callSize-1] = e+1;
+					int w = graph.outTarget(e);
+
+					if (index[w] == -1) {
+						// "recursive" call
+						index[w] = lowlink[w] = nextIndex++;
+						stack[stackSize++] = w;
+						onStack.set(w);
+						callVertex[callSize] = w;
+						callEdge[callSize] = graph.outBegin(w);
+						callSize++;
+					} else if (onStack.get(w)) {
+						lowlink[v] = Math.min(lowlink[v], index[w]);
+					}
+				} else {
+					// "return" from v
+					callSize--;
+					if (lowlink[v] == index[v]) {
+						int w;
+						do {
+							w = stack[--stackSize];
+							onStack.clear(w);
+							component[w] = nextComponent;
+						} while (w != v);
+						nextComponent++;
+					}
+					if (callSize > 0) {
+						int parent = callVertex[callSize-1];
+						lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+					}
 				}
 			}
+		}
+
+		return component;
+	}
 
-			_SCC.add(componentGraph);
+
+	/* protected methods */
+	/**
+	 * groups the Vertex-IDs by component (once)
+	 */
+	protected void _bucketMembers() {
+		if (_members != null) return;
+
+		int[] offsets = new int[_componentCount+1];
+		for (int id: _componentIDs) {
+			offsets[id+1]++;
+		}
+		for (int c=0; c<_componentCount; c++) {
+			offsets[c+1] += offsets[c];
 		}
+		int[] members = new int[_componentIDs.length];
+		int[] fill = Arrays.copyOf(offsets, _componentCount);
+		for (int v=0; v<_componentIDs.length; v++) {
+			members[fill[_componentIDs[v]]++] = v;
+		}
+
+		_memberOffsets = offsets;
+		_members = members;
 	}
 
 
 	/* protected member */
-	protected int _index=0;
-	protected ArrayList<Object> _stack=new ArrayList<Object>();
-	protected List<DirectedGraph<?>> _SCC=new ArrayList<DirectedGraph<?>>();
-
-	protected Map<Object,Integer> _vertexIndices=new HashMap<Object,Integer>();
-	protected Map<Object,Integer> _vertexLowlinks=new HashMap<Object,Integer>();
-}
\ No newline at end of file
+	protected CompactGraph<?> _graph = null;
+	/** Vertex-ID => component-ID */
+	protected int[] _componentIDs = new int[0];
+	protected int _componentCount = 0;
+	/** lazily built result of getSCCs() */
+	protected List<DirectedGraph<?>> _SCC = null;
+	/** Vertex-IDs grouped by component: members of c are _members[_memberOffsets[c]] .. _members[_memberOffsets[c+1]-1] */
+	protected int[] _memberOffsets = null;
+	protected int[] _members = null;
+}
@@ -5,24 +5,40 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import de.tum.in.fedsparql.inference.framework.graph.CompactGraph;
 import de.tum.in.fedsparql.inference.framework.graph.DirectedGraph;
 import de.tum.in.fedsparql.inference.framework.xceptions.DependencyCycleException;
 
 /*
  * Applies Topological Sorting to a DirectedGraph (http://en.wikipedia.org/wiki/Topological_sorting)
- * 
+ *
  * 1. process all items that don't depend on any other items
  * 2. remove the processed items
  * 3. recalculate dependencies and start again at (1)
- * 
+ *
  * if the graph doesn't contain cycles this method will determine with no items to process left
+ *
+ * Implemented like Kahn: instead of removing vertices, a counter of unprocessed dependencies is kept per vertex
+ * and decremented along the incoming edges of every processed vertex => O(V+E).
  */
 public class TopologicalSorting {
 
 	public TopologicalSorting(DirectedGraph<?> graph) throws DependencyCycleException {
-		DirectedGraph<Object> clone = graph.shallowClone();
-		if (!_doSorting(clone)) {
-			throw new DependencyCycleException("Topological-Sorting can only be applied to graphs not containing any cycles!");
+		this(graph, null);
+	}
+	/**
+	 * Streaming variant: every step is handed to the listener as soon as it is known
+	 * (steps are not kept => getSteps() stays empty).
+	 * If the graph contains a cycle, the steps before it were already emitted when the exception is thrown.
+	 *
+	 * @param graph
+	 * @param listener receives the steps in order, NULL to collect them for getSteps()
+	 * @throws DependencyCycleException
+	 */
+	public TopologicalSorting(DirectedGraph<?> graph, StepListener listener) throws DependencyCycleException {
+		_listener = listener;
+		if (!_doSorting(graph.compile())) {
+			throw new DependencyCycleException("Topological-Sorting can only be applied to graphs not containing any cycles! Found: " + _cycle, _cycle);
 		}
 	}
 
@@ -33,43 +49,116 @@ public class TopologicalSorting {
 	}
 
 
-	/* protected methods */
-	protected boolean _doSorting(DirectedGraph<Object> graph) {
+	/* helper classes */
+	/**
+	 * Receives the steps of a streaming TopologicalSorting.
+	 */
+	public static interface StepListener {
 		/**
-		 * 1. process all items that don't depend on any other items
-		 * 2. remove the processed items
-		 * 3. recalculate dependencies and start again at (1)
-		 * 
-		 * if the graph doesn't contain cycles this method will determine with no items to process left
+		 * @param step all items that only depend on items of previous steps
 		 */
-		if (graph.containsCycle()) return false;
+		public void onStep(Set<Object> step);
+	}
 
 
-		// loop until all vertices were processed
-		while (graph.getVertices().size() > 0) {
-			Set<Object> independentVertices=new HashSet<Object>();
+	/* protected methods */
+	protected boolean _doSorting(CompactGraph<?> graph) {
+		int n = graph.size();
+
+		// count the dependencies of every vertex + start with the independent ones
+		int[] unprocessedDependencies = new int[n];
+		int[] current = new int[n];
+		int currentSize = 0;
+		for (int v=0; v<n; v++) {
+			unprocessedDependencies[v] = graph.outDegree(v);
+			if (unprocessedDependencies[v] == 0) {
+				current[currentSize++] = v;
+			}
+		}
 
-			// determine all independent vertices
-			for (Object vertex: graph.getVertices()) {
-				if (graph.getEdges(vertex).size() <= 0) {
-					independentVertices.add(vertex);
+		int[] next = new int[n];
+		int processed = 0;
+		while (currentSize > 0) {
+			Set<Object> independentVertices = new HashSet<Object>();
+			int nextSize = 0;
+
+			for (int c=0; c<currentSize; c++) {
+				int v = current[c];
+				independentVertices.add(graph.getVertex(v));
+
+				// "remove" v => its dependents have one dependency less
+				for (int i=graph.inBegin(v); i<graph.inEnd(v); i++) {
+					int dependent = graph.inTarget(i);
+					if (--unprocessedDependencies[dependent] == 0) {
+						next[nextSize++] = dependent;
+					}
 				}
 			}
+			processed += currentSize;
 
-			// remove them from the graph (+ recalculation of the dependencies is implicitly done by DirectedGraph)
-			for (Object vertex: independentVertices) {
-				graph.removeVertex(vertex);
-			}
+			// save this "step" and continue with the next one
+			_emit(independentVertices);
 
-			// save this "step" and continue with the new smaller graph
-			_steps.add(independentVertices);
+			int[] swap = current;
+			current = next;
+			next = swap;
+			currentSize = nextSize;
 		}
 
-
+		if (processed < n) {
+			_cycle = _findCycle(graph, unprocessedDependencies);
+			return false;
+		}
 		return true;
 	}
 
+	protected void _emit(Set<Object> step) {
+		if (_listener != null) {
+			_listener.onStep(step);
+		} else {
+			_steps.add(step);
+		}
+	}
+
+	/**
+	 * Every vertex that couldn't be processed has an unprocessed dependency
+	 * => following those dependencies must run into a cycle.
+	 *
+	 * @param graph
+	 * @param unprocessedDependencies
+	 * @return the vertices of one cycle in edge order
+	 */
+	protected List<Object> _findCycle(CompactGraph<?> graph, int[] unprocessedDependencies) {
+		int n = graph.size();
+		int start = 0;
+		while (unprocessedDependencies[start] == 0) start++;
+
+		int[] visitedAt = new int[n];
+		List<Integer> path = new ArrayList<Integer>();
+		int v = start;
+		while (visitedAt[v] == 0) {
+			path.add(v);
+			visitedAt[v] = path.size();
+
+			for (int i=graph.outBegin(v); i<graph.outEnd(v); i++) {
+				if (unprocessedDependencies[graph.outTarget(i)] > 0) {
+					v = graph.outTarget(i);
+					break;
+				}
+			}
+		}
+
+		List<Object> cycle = new ArrayList<Object>();
+		for (int i=visitedAt[v]-1; i<path.size(); i++) {
+			cycle.add(graph.getVertex(path.get(i)));
+		}
+		return cycle;
+	}
+
 
 	/* protected member */
 	protected List<Set<Object>> _steps=new ArrayList<Set<Object>>();
+	protected StepListener _listener=null;
+	/** a cycle if the sorting failed */
+	protected List<Object> _cycle=null;
 }
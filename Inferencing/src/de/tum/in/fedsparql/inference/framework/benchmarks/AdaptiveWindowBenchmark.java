@@ -0,0 +1,99 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleWindowedScheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.WindowedScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Compares a fixed scheduling window (every window stays open WINDOW_DELAY ms, like before)
+ * with the adaptive one (closes early on size, when all announced scripts arrived or when idle)
+ * on a chain of dependent scripts and on a random wide DAG.
+ */
+public class AdaptiveWindowBenchmark {
+
+	protected static final int WINDOW_DELAY = 100;
+	protected static final int CHAIN_LENGTH = 50;
+	protected static final int DAG_SIZE = 500;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph chain = _createChain(CHAIN_LENGTH);
+		DependencyGraph dag = PlanConstructionBenchmark.createDAG(DAG_SIZE, new Random(42));
+
+		System.out.println("plan\tscripts\twindow\twall time [ms]\tstatistics");
+		_run("chain", chain, false);
+		_run("chain", chain, true);
+		_run("random DAG", dag, false);
+		_run("random DAG", dag, true);
+	}
+
+
+	/* protected methods */
+	protected static void _run(String name, DependencyGraph dGraph, boolean adaptive) throws Exception {
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+		WindowedScheduler scheduler = _createScheduler(dGraph);
+		scheduler.setWindowDelay(WINDOW_DELAY);
+		if (!adaptive) {
+			// only the max. delay closes windows
+			scheduler.setIdleTimeout(WINDOW_DELAY);
+			scheduler.setMaxWindowSize(Integer.MAX_VALUE);
+		}
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		long start = System.nanoTime();
+		try {
+			if (adaptive) {
+				plan.execute(scheduler, executor);
+			} else {
+				// a Thread per path doesn't announce executions
+				plan.getStartStep().execute(scheduler);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		long duration = System.nanoTime() - start;
+
+		System.out.println(name + "\t" + dGraph.size() + "\t" + (adaptive ? "adaptive" : "fixed") + "\t" + duration/1000000 + "\t" + scheduler.getWindowStatistics());
+	}
+
+	protected static DependencyGraph _createChain(int length) {
+		de.tum.in.fedsparql.inference.framework.Script[] scripts = new de.tum.in.fedsparql.inference.framework.Script[length];
+		for (int i=0; i<length; i++) {
+			DatabaseID[] inputs = i == 0 ? new DatabaseID[0] : new DatabaseID[]{new DatabaseID("db"+(i-1))};
+			scripts[i] = new de.tum.in.fedsparql.inference.framework.Script("s"+i, inputs, new DatabaseID[]{new DatabaseID("db"+i)}, "");
+		}
+
+		return new DependencyGraph(scripts);
+	}
+
+	protected static WindowedScheduler _createScheduler(DependencyGraph dGraph) {
+		List<Node> nodes = new ArrayList<Node>();
+		for (int i=1; i<=3; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+
+		return new SimpleWindowedScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+}
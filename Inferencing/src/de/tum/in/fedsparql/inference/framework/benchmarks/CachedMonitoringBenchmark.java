@@ -0,0 +1,105 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tum.in.fedsparql.inference.io.CachedMonitoring;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Compares a slow, noisy Monitoring (MONITOR_MILLIS per call, cpu load 0.5 +- NOISE) with a CachedMonitoring in front of it:
+ * - THREADS threads requesting the loads of all NODES nodes CALLS times each (like schedulers in concurrent windows)
+ * - standard deviation of the raw samples vs the smoothed loads around the true load of 0.5
+ * - polls of the slow Monitoring without background polling + samples going stale after STALENESS ms:
+ *   concurrent callers of a stale node share one poll
+ */
+public class CachedMonitoringBenchmark {
+
+	protected static final int NODES = 8;
+	protected static final int THREADS = 8;
+	protected static final int CALLS = 100;
+	protected static final int MONITOR_MILLIS = 2;
+	protected static final double NOISE = 0.4;
+	protected static final int STALENESS = 5;
+
+
+	public static void main(String[] args) throws Exception {
+		final List<Node> nodes = new ArrayList<Node>();
+		for (int i=0; i<NODES; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+
+		final AtomicLong polls = new AtomicLong();
+		Monitoring source = new Monitoring() {
+			private final Random random = new Random(42);
+
+			@Override
+			public Load monitor(Node node) {
+				polls.incrementAndGet();
+				try {
+					Thread.sleep(MONITOR_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				synchronized (random) {
+					return new Load(0.5, 0.5 + (random.nextDouble() * 2 - 1) * NOISE);
+				}
+			}
+		};
+
+		System.out.println("direct: " + _run(source, nodes, false));
+
+		CachedMonitoring cached = new CachedMonitoring(source, 20, 200);
+		cached.track(nodes);
+		Thread.sleep(500);
+		System.out.println("cached (latest sample): " + _run(cached, nodes, false));
+		System.out.println("cached (smoothed): " + _run(cached, nodes, true));
+		cached.shutdown();
+
+		cached = new CachedMonitoring(source, 0, STALENESS);
+		polls.set(0);
+		String result = _run(cached, nodes, false);
+		System.out.println("cached (no background polling, stale after " + STALENESS + "ms): " + result + ", " + polls.get() + " polls");
+	}
+
+
+	/* protected methods */
+	protected static String _run(final Monitoring monitoring, final List<Node> nodes, final boolean smoothed) throws Exception {
+		final double[] squaredErrors = new double[THREADS];
+		Thread[] threads = new Thread[THREADS];
+		long start = System.nanoTime();
+		for (int t=0; t<THREADS; t++) {
+			final int thread = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int c=0; c<CALLS; c++) {
+						for (Node node: nodes) {
+							Monitoring.Load load = smoothed ? ((CachedMonitoring) monitoring).getSmoothedLoad(node) : monitoring.monitor(node);
+							squaredErrors[thread] += (load.cpu - 0.5) * (load.cpu - 0.5);
+						}
+						// spread the calls over the polling intervals
+						try {
+							Thread.sleep(1);
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+
+		double squaredError = 0;
+		for (int t=0; t<THREADS; t++) {
+			threads[t].join();
+			squaredError += squaredErrors[t];
+		}
+		long calls = (long) THREADS * CALLS * nodes.size();
+		long nanos = System.nanoTime() - start;
+		return String.format("%d calls in %d ms, cpu stddev %.3f", calls, nanos / 1000000, Math.sqrt(squaredError / calls));
+	}
+}
@@ -0,0 +1,155 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.CriticalPathScheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.DBPriorityScheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+import de.tum.in.fedsparql.inference.io.Database;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Simulated makespan of CriticalPathScheduler vs DBPriorityScheduler on random DAGs:
+ * - CPU_LOADS.length nodes with different (constant) cpu loads, every node executes one script at a time
+ * - every database has a random size + is hosted by a random node
+ * - a script takes (1 + 0.001 * input triples) / node speed + 0.002 * triples hosted elsewhere [units],
+ *   the same model CriticalPathScheduler estimates with; one unit = MILLIS_PER_UNIT ms of sleeping
+ */
+public class CriticalPathBenchmark {
+
+	protected static final double[] CPU_LOADS = new double[]{0.0, 0.3, 0.6, 0.8};
+	protected static final int SCRIPTS = 300;
+	protected static final int SEEDS = 5;
+	protected static final int MAX_TRIPLES = 3000;
+	protected static final double MILLIS_PER_UNIT = 3;
+
+
+	public static void main(String[] args) throws Exception {
+		System.out.println("seed\tDBPriorityScheduler [ms]\tCriticalPathScheduler [ms]\treduction");
+		long dbTotal = 0;
+		long cpTotal = 0;
+		for (int seed=1; seed<=SEEDS; seed++) {
+			DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(seed));
+
+			long db = _simulate(dGraph, seed, false);
+			long cp = _simulate(dGraph, seed, true);
+			System.out.println(seed + "\t" + db + "\t" + cp + "\t" + Math.round(100 - 100.0 * cp / db) + "%");
+			dbTotal += db;
+			cpTotal += cp;
+		}
+		System.out.println("total\t" + dbTotal + "\t" + cpTotal + "\t" + Math.round(100 - 100.0 * cpTotal / dbTotal) + "%");
+	}
+
+
+	/* protected methods */
+	/**
+	 * @return makespan [ms]
+	 */
+	protected static long _simulate(DependencyGraph dGraph, int seed, boolean criticalPath) throws Exception {
+		final List<Node> nodes = new ArrayList<Node>();
+		final Map<Node,Double> speeds = new HashMap<Node,Double>();
+		final Map<Node,Semaphore> slots = new HashMap<Node,Semaphore>();
+		for (int i=0; i<CPU_LOADS.length; i++) {
+			Node node = new Node("Node"+i, "localhost", 2220+i);
+			nodes.add(node);
+			speeds.put(node, 1 - CPU_LOADS[i]);
+			slots.put(node, new Semaphore(1, true));
+		}
+
+		// databases with random sizes on random nodes
+		final SizedIO io = new SizedIO(nodes);
+		Random random = new Random(seed);
+		for (DatabaseID databaseID: dGraph.getOutputDatabases()) {
+			Database database = new DummyDatabase(databaseID.getName());
+			io.register(nodes.get(random.nextInt(nodes.size())), database);
+			io.sizes.put(database, random.nextInt(MAX_TRIPLES));
+		}
+
+		Monitoring monitoring = new Monitoring() {
+			@Override
+			public Load monitor(Node node) {
+				return new Load(0.5, 1 - speeds.get(node));
+			}
+		};
+		Dispatcher dispatcher = new Dispatcher() {
+			@Override
+			public void execute(Node node, de.tum.in.fedsparql.inference.Script script) {
+				Script s = (Script) script;
+				double units = (1 + 0.001 * io.getSize(s.inputDatabases, null)) / speeds.get(node)
+						+ 0.002 * (io.getSize(s.inputDatabases, node) + io.getSize(s.outputDatabases, node));
+				try {
+					slots.get(node).acquire();
+					try {
+						Thread.sleep(Math.round(units * MILLIS_PER_UNIT));
+					} finally {
+						slots.get(node).release();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		Scheduler scheduler = criticalPath
+				? new CriticalPathScheduler(dGraph, io, monitoring, dispatcher)
+				: new DBPriorityScheduler(dGraph, io, monitoring, dispatcher);
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		long start = System.nanoTime();
+		try {
+			plan.execute(scheduler, executor);
+		} finally {
+			executor.shutdown();
+		}
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+
+	/* helper classes */
+	/**
+	 * DummyIO with synthetic database sizes
+	 */
+	protected static class SizedIO extends DummyIO {
+		public final Map<Database,Integer> sizes = new HashMap<Database,Integer>();
+
+		public SizedIO(List<Node> nodes) {
+			super(nodes);
+		}
+
+		@Override
+		public int getSize(Database database) {
+			Integer size = sizes.get(database);
+			return size != null ? size : 0;
+		}
+
+		/**
+		 * @param notOn NULL: size of all databases || size of the databases not hosted by this node
+		 */
+		public long getSize(Iterable<DatabaseID> databaseIDs, Node notOn) {
+			long size = 0;
+			for (DatabaseID databaseID: databaseIDs) {
+				Database database = getDatabaseByName(databaseID.getName());
+				if (database != null && (notOn == null || getNodeForDatabase(database) != notOn)) {
+					size += getSize(database);
+				}
+			}
+			return size;
+		}
+	}
+}
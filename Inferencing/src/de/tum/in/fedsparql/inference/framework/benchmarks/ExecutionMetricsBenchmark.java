@@ -0,0 +1,92 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.metrics.ExecutionMetrics;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.PlanExecutor;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.NodeSlots;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Overhead of collecting ExecutionMetrics: best wall time of RUNS executions of a random plan
+ * whose scripts do nothing, with and without metrics.
+ * Prints the metrics of an execution where every script sleeps DISPATCH_MILLIS on nodes with a single slot afterwards.
+ */
+public class ExecutionMetricsBenchmark {
+
+	protected static final int SCRIPTS = 5000;
+	protected static final int RUNS = 10;
+	protected static final int DISPATCH_MILLIS = 2;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(42));
+		ExecutorService executor = Executors.newFixedThreadPool(PlanExecutor.DEFAULT_POOL_SIZE);
+		try {
+			// alternate to share JIT warm-up
+			long without = Long.MAX_VALUE;
+			long with = Long.MAX_VALUE;
+			for (int run=0; run<RUNS; run++) {
+				without = Math.min(without, _run(dGraph, executor, null, 0));
+				with = Math.min(with, _run(dGraph, executor, new ExecutionMetrics(), 0));
+			}
+			System.out.println(SCRIPTS + " scripts without metrics: " + without / 1000 + "us, with metrics: " + with / 1000 + "us");
+
+			ExecutionMetrics metrics = new ExecutionMetrics();
+			_run(dGraph, executor, metrics, DISPATCH_MILLIS);
+			System.out.print(metrics);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * @param metrics NULL: no listener
+	 * @param dispatchMillis > 0: every script sleeps that long + nodes get one slot each
+	 * @return wall time [ns]
+	 */
+	protected static long _run(DependencyGraph dGraph, ExecutorService executor, ExecutionMetrics metrics, final int dispatchMillis) throws Exception {
+		List<Node> nodes = new ArrayList<Node>();
+		for (int i=1; i<=3; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+
+		Scheduler scheduler = new SimpleScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				if (dispatchMillis > 0) {
+					try {
+						Thread.sleep(dispatchMillis);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		});
+		if (metrics != null) {
+			scheduler.addExecutionListener(metrics);
+		}
+		if (dispatchMillis > 0) {
+			scheduler.setNodeSlots(new NodeSlots(1));
+		}
+
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+		long start = System.nanoTime();
+		plan.execute(scheduler, executor);
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,85 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.metrics.ExecutionTrace;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.CriticalPathScheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.NodeSlots;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Traces the execution of a random plan with CriticalPathScheduler on nodes with one slot each + skewed cpu loads
+ * (a script takes SCRIPT_MILLIS / (1 - cpu load)).
+ * Prints the critical path + idle times of all nodes and writes the Chrome trace to the file given as argument (default trace.json).
+ */
+public class ExecutionTraceBenchmark {
+
+	protected static final double[] CPU_LOADS = new double[]{0.0, 0.3, 0.7};
+	protected static final int SCRIPTS = 200;
+	protected static final int SCRIPT_MILLIS = 5;
+
+
+	public static void main(String[] args) throws Exception {
+		String file = args.length > 0 ? args[0] : "trace.json";
+		DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(42));
+
+		List<Node> nodes = new ArrayList<Node>();
+		final Map<Node,Double> cpuLoads = new HashMap<Node,Double>();
+		for (int i=0; i<CPU_LOADS.length; i++) {
+			Node node = new Node("Node"+i, "localhost", 2220+i);
+			nodes.add(node);
+			cpuLoads.put(node, CPU_LOADS[i]);
+		}
+
+		CriticalPathScheduler scheduler = new CriticalPathScheduler(dGraph, new DummyIO(nodes), new Monitoring() {
+			@Override
+			public Load monitor(Node node) {
+				return new Load(0.5, cpuLoads.get(node));
+			}
+		}, new Dispatcher() {
+			@Override
+			public void execute(Node node, de.tum.in.fedsparql.inference.Script script) {
+				try {
+					Thread.sleep(Math.round(SCRIPT_MILLIS / (1 - cpuLoads.get(node))));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		scheduler.setWindowDelay(20);
+		scheduler.setNodeSlots(new NodeSlots(1));
+
+		ExecutionTrace trace = new ExecutionTrace(nodes);
+		scheduler.addExecutionListener(trace);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			new ExecutionPlan(dGraph).execute(scheduler, executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		System.out.print(trace);
+
+		Writer writer = new FileWriter(file);
+		try {
+			trace.writeChromeTrace(writer);
+		} finally {
+			writer.close();
+		}
+		System.out.println("Chrome trace of " + trace.getEvents().size() + " events written to " + file);
+	}
+}
@@ -0,0 +1,109 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.tum.in.fedsparql.inference.framework.graph.DirectedGraph;
+
+/**
+ * Compares incoming-edge lookups + vertex removal of DirectedGraph (incoming-edge index)
+ * with the former full edge scan on random graphs of growing size.
+ * 
+ * Expected: indexed lookups stay constant per call, the full scan grows linearly with |E|.
+ */
+public class IncomingEdgesBenchmark {
+
+	/** average out-degree of the generated graphs */
+	protected static final int DEGREE = 4;
+	/** lookups / removals measured per graph size */
+	protected static final int SAMPLES = 200;
+
+
+	public static void main(String[] args) {
+		int[] sizes = new int[]{1000, 5000, 20000, 50000};
+
+		System.out.println("vertices\tedges\tindexed lookup [us]\tfull scan [us]\tremoveVertex [us]");
+		for (int size: sizes) {
+			DirectedGraph<Integer> graph = _createGraph(size, new Random(42));
+			List<Integer> samples = _samples(size, new Random(7));
+
+			// warm up
+			_lookupIndexed(graph, samples);
+			_lookupScan(graph, samples);
+
+			long indexed = _lookupIndexed(graph, samples);
+			long scan = _lookupScan(graph, samples);
+			long removal = _remove(graph, samples);
+
+			System.out.println(size + "\t" + size*DEGREE + "\t"
+					+ _micros(indexed) + "\t" + _micros(scan) + "\t" + _micros(removal));
+		}
+	}
+
+
+	/* protected methods */
+	protected static DirectedGraph<Integer> _createGraph(int size, Random random) {
+		DirectedGraph<Integer> graph = new DirectedGraph<Integer>();
+		for (int i=0; i<size; i++) {
+			graph.addVertex(i);
+		}
+		for (int i=0; i<size; i++) {
+			for (int j=0; j<DEGREE; j++) {
+				graph.addEdge(i, random.nextInt(size));
+			}
+		}
+		return graph;
+	}
+	protected static List<Integer> _samples(int size, Random random) {
+		List<Integer> samples = new ArrayList<Integer>();
+		for (int i=0; i<SAMPLES; i++) {
+			samples.add(random.nextInt(size));
+		}
+		return samples;
+	}
+	protected static long _lookupIndexed(DirectedGraph<Integer> graph, List<Integer> samples) {
+		long start = System.nanoTime();
+		int found = 0;
+		for (Integer v: samples) {
+			found += graph.getEdgesIncoming(v).size();
+		}
+		_sink += found;
+		return System.nanoTime() - start;
+	}
+	/**
+	 * the former implementation of getEdgesIncoming(): filter all edges of the graph
+	 */
+	protected static long _lookupScan(DirectedGraph<Integer> graph, List<Integer> samples) {
+		long start = System.nanoTime();
+		int found = 0;
+		for (Integer v: samples) {
+			Set<DirectedGraph<Integer>.Edge> incoming = new HashSet<DirectedGraph<Integer>.Edge>();
+			for (DirectedGraph<Integer>.Edge edge: graph.getEdges()) {
+				if (edge.destination.equals(v)) {
+					incoming.add(edge);
+				}
+			}
+			found += incoming.size();
+		}
+		_sink += found;
+		return System.nanoTime() - start;
+	}
+	protected static long _remove(DirectedGraph<Integer> graph, List<Integer> samples) {
+		long start = System.nanoTime();
+		for (Integer v: samples) {
+			graph.removeVertex(v);
+		}
+		return System.nanoTime() - start;
+	}
+	protected static String _micros(long nanos) {
+		return String.format("%.2f", nanos / 1000.0 / SAMPLES);
+	}
+
+
+	/* protected member */
+	/** keeps the JIT from eliminating the measured loops */
+	protected static long _sink = 0;
+}
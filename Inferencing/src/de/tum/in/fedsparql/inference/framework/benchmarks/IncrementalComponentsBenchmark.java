@@ -0,0 +1,159 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import de.tum.in.fedsparql.inference.framework.algorithms.Tarjan;
+import de.tum.in.fedsparql.inference.framework.graph.CompactGraph;
+import de.tum.in.fedsparql.inference.framework.graph.DirectedGraph;
+
+/**
+ * Checks the incrementally maintained SCCs of DirectedGraph against a fresh Tarjan run:
+ * - a Pearce-Kelly merge where the components above the new cycle have edges to components outside of it
+ * - SEEDS random sequences of OPERATIONS vertex/edge additions + removals, compared after every operation
+ * Afterwards measures the incremental containsCycle() against a fresh Tarjan per added edge.
+ *
+ * Throws an IllegalStateException on the first difference.
+ */
+public class IncrementalComponentsBenchmark {
+
+	/** count of random sequences checked */
+	protected static final int SEEDS = 2000;
+	/** operations per random sequence */
+	protected static final int OPERATIONS = 60;
+	/** vertices of the random graphs */
+	protected static final int VERTICES = 12;
+	/** edges added for the measurement */
+	protected static final int EDGES = 20000;
+
+
+	public static void main(String[] args) {
+		// reorder with a merge: U and Z lie above D, U has edges to A + Z
+		DirectedGraph<String> graph = new DirectedGraph<String>();
+		for (String v: new String[]{"A", "B", "Z", "U", "D"}) {
+			graph.addVertex(v);
+		}
+		_check(graph, "initial"); // starts the incremental tracking
+		graph.addEdge("B", "A").addEdge("U", "A").addEdge("U", "Z").addEdge("D", "B");
+		_check(graph, "B->A, U->A, U->Z, D->B");
+		graph.addEdge("A", "D");
+		_check(graph, "A->D");
+		graph.addEdge("Z", "U");
+		_check(graph, "Z->U");
+
+		for (int seed=0; seed<SEEDS; seed++) {
+			_fuzz(new Random(seed), seed);
+		}
+		System.out.println(SEEDS + " random sequences of " + OPERATIONS + " operations match Tarjan");
+
+		System.out.println("edges\tincremental [ms]\tfresh Tarjan [ms]");
+		for (int size: new int[]{EDGES / 4, EDGES}) {
+			System.out.println(size + "\t" + _measure(size, true) / 1000000 + "\t" + _measure(size, false) / 1000000);
+		}
+	}
+
+
+	/* protected methods */
+	protected static void _fuzz(Random random, int seed) {
+		DirectedGraph<Integer> graph = new DirectedGraph<Integer>();
+		for (int i=0; i<VERTICES; i++) {
+			graph.addVertex(i);
+		}
+		graph.containsCycle(); // starts the incremental tracking
+
+		for (int op=0; op<OPERATIONS; op++) {
+			int origin = random.nextInt(VERTICES);
+			int destination = random.nextInt(VERTICES);
+			int kind = random.nextInt(10);
+			String operation;
+			if (kind < 6) {
+				graph.addVertex(origin).addVertex(destination).addEdge(origin, destination);
+				operation = "add " + origin + "->" + destination;
+			} else if (kind < 9) {
+				graph.removeEdge(origin, destination);
+				operation = "remove " + origin + "->" + destination;
+			} else {
+				graph.removeVertex(origin);
+				operation = "remove " + origin;
+			}
+			_check(graph, "seed " + seed + ", operation " + op + ": " + operation);
+		}
+	}
+	/**
+	 * compares the components + cycles of the graph with a fresh Tarjan run
+	 */
+	protected static <V> void _check(DirectedGraph<V> graph, String context) {
+		CompactGraph<V> cg = graph.compile();
+		int[] componentIDs = Tarjan.getComponentIDs(cg);
+
+		Map<Integer,Set<V>> expected = new HashMap<Integer,Set<V>>();
+		for (int v=0; v<cg.size(); v++) {
+			Set<V> members = expected.get(componentIDs[v]);
+			if (members == null) {
+				members = new HashSet<V>();
+				expected.put(componentIDs[v], members);
+			}
+			members.add(cg.getVertex(v));
+		}
+		int expectedCycles = 0;
+		for (Set<V> members: expected.values()) {
+			V v = members.iterator().next();
+			if (members.size() > 1 || graph.getEdge(v, v) != null) expectedCycles++;
+		}
+
+		Set<Set<V>> actual = new HashSet<Set<V>>();
+		for (DirectedGraph<V> component: graph.getStronglyConnectedComponents()) {
+			actual.add(new HashSet<V>(component.getVertices()));
+		}
+		int actualCycles = graph.getCycles().size();
+
+		if (!actual.equals(new HashSet<Set<V>>(expected.values())) || actualCycles != expectedCycles
+				|| graph.containsCycle() != (expectedCycles > 0)) {
+			throw new IllegalStateException(context + ": components " + actual + " (" + actualCycles + " cycles), Tarjan "
+					+ expected.values() + " (" + expectedCycles + " cycles)");
+		}
+	}
+	/**
+	 * adds random edges + asks for a cycle after every edge
+	 *
+	 * @param incremental true: DirectedGraph.containsCycle() || false: fresh Tarjan on the compiled graph
+	 * @return duration in ns
+	 */
+	protected static long _measure(int edges, boolean incremental) {
+		Random random = new Random(42);
+		int vertices = edges / 2;
+		DirectedGraph<Integer> graph = new DirectedGraph<Integer>();
+		for (int i=0; i<vertices; i++) {
+			graph.addVertex(i);
+		}
+
+		List<int[]> sample = new ArrayList<int[]>();
+		for (int i=0; i<edges; i++) {
+			sample.add(new int[]{random.nextInt(vertices), random.nextInt(vertices)});
+		}
+
+		long start = System.nanoTime();
+		int cycles = 0;
+		for (int[] edge: sample) {
+			graph.addEdge(edge[0], edge[1]);
+			if (incremental) {
+				if (graph.containsCycle()) cycles++;
+			} else {
+				int[] componentIDs = Tarjan.getComponentIDs(graph.compile());
+				cycles += componentIDs.length < graph.getVertices().size() ? 0 : 1;
+			}
+		}
+		_sink += cycles;
+		return System.nanoTime() - start;
+	}
+
+
+	/* protected member */
+	/** keeps the JIT from eliminating the measured loops */
+	protected static long _sink = 0;
+}
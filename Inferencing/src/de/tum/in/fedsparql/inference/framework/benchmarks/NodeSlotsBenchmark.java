@@ -0,0 +1,89 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.NodeSlots;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleWindowedScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Executes a random DAG with SimpleWindowedScheduler on nodes of different capacity (CAPACITIES parallel scripts),
+ * without node slots (round robin) and with node slots matching the capacities.
+ *
+ * A node shares its capacity among its executions: a script takes
+ * SCRIPT_MILLIS * max(1, executions on the node / capacity).
+ */
+public class NodeSlotsBenchmark {
+
+	protected static final int[] CAPACITIES = new int[]{4, 2, 1};
+	protected static final int SCRIPTS = 400;
+	protected static final int SCRIPT_MILLIS = 10;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(42));
+
+		_run("unlimited (round robin)", dGraph, false);
+		_run("slots = capacity", dGraph, true);
+	}
+
+
+	/* protected methods */
+	protected static void _run(String mode, DependencyGraph dGraph, boolean useSlots) throws Exception {
+		List<Node> nodes = new ArrayList<Node>();
+		final Map<Node,Integer> capacities = new HashMap<Node,Integer>();
+		final Map<Node,AtomicInteger> executing = new HashMap<Node,AtomicInteger>();
+		NodeSlots slots = new NodeSlots(1);
+		for (int i=0; i<CAPACITIES.length; i++) {
+			Node node = new Node("Node"+i, "localhost", 2220+i);
+			nodes.add(node);
+			capacities.put(node, CAPACITIES[i]);
+			executing.put(node, new AtomicInteger());
+			slots.setSlots(node, CAPACITIES[i]);
+		}
+
+		SimpleWindowedScheduler scheduler = new SimpleWindowedScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				int concurrent = executing.get(node).incrementAndGet();
+				try {
+					Thread.sleep(SCRIPT_MILLIS * Math.max(1, concurrent / capacities.get(node)));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					executing.get(node).decrementAndGet();
+				}
+			}
+		});
+		if (useSlots) {
+			scheduler.setNodeSlots(slots);
+		}
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		long start = System.nanoTime();
+		try {
+			plan.execute(scheduler, executor);
+		} finally {
+			executor.shutdown();
+		}
+
+		System.out.println(mode + ": makespan " + (System.nanoTime() - start) / 1000000 + "ms");
+		if (useSlots) {
+			System.out.print(slots);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.Random;
+
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.xceptions.ExecutionPlanException;
+
+/**
+ * Measures ExecutionPlan construction for synthetic DAGs of 10k and 100k Scripts.
+ */
+public class PlanConstructionBenchmark {
+
+	/** max. count of input databases per script */
+	protected static final int MAX_INPUTS = 3;
+	/** scripts only read from the outputs of the previous WINDOW scripts => long + wide DAGs */
+	protected static final int WINDOW = 200;
+
+
+	public static void main(String[] args) throws ExecutionPlanException {
+		int[] sizes = new int[]{10000, 100000};
+
+		// warm up
+		new ExecutionPlan(createDAG(2000, new Random(1)));
+
+		System.out.println("scripts\tdependencies\tplan steps\tplan construction [ms]");
+		for (int size: sizes) {
+			DependencyGraph dGraph = createDAG(size, new Random(42));
+
+			long start = System.nanoTime();
+			ExecutionPlan plan = new ExecutionPlan(dGraph);
+			long duration = System.nanoTime() - start;
+
+			System.out.println(size + "\t" + dGraph.getEdges().size() + "\t" + plan.getSteps().size() + "\t" + duration/1000000);
+		}
+	}
+
+	/**
+	 * Creates a random DAG: script i writes database "db{i}" and reads from up to MAX_INPUTS databases of its predecessors.
+	 * 
+	 * @param size count of scripts
+	 * @param random
+	 */
+	public static DependencyGraph createDAG(int size, Random random) {
+		Script[] scripts = new Script[size];
+		for (int i=0; i<size; i++) {
+			int inputs = i==0 ? 0 : random.nextInt(MAX_INPUTS+1);
+			DatabaseID[] inputDatabases = new DatabaseID[inputs];
+			for (int j=0; j<inputs; j++) {
+				inputDatabases[j] = new DatabaseID("db" + Math.max(0, i - 1 - random.nextInt(WINDOW)));
+			}
+
+			scripts[i] = new Script("s"+i, inputDatabases, new DatabaseID[]{new DatabaseID("db"+i)}, "");
+		}
+
+		return new DependencyGraph(scripts);
+	}
+}
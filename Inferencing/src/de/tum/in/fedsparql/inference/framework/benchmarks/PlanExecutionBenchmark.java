@@ -0,0 +1,88 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.PlanExecutor;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Executes the same random plans with a Thread per parallel path (Start.execute()) and on a PlanExecutor pool.
+ * Every dispatched script sleeps DISPATCH_MILLIS, like a script waiting for its node.
+ *
+ * Reported: wall time, peak count of live threads + count of scripts that were actually executed.
+ */
+public class PlanExecutionBenchmark {
+
+	/** simulated duration of a single script execution */
+	protected static final int DISPATCH_MILLIS = 2;
+
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = new int[]{500, 2000, 5000};
+
+		System.out.println("scripts\tmode\twall time [ms]\tpeak threads\texecuted scripts");
+		for (int size: sizes) {
+			DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(size, new Random(42));
+
+			_run(size, "thread per path", dGraph, null);
+
+			ExecutorService executor = Executors.newFixedThreadPool(PlanExecutor.DEFAULT_POOL_SIZE);
+			_run(size, "pool of " + PlanExecutor.DEFAULT_POOL_SIZE, dGraph, executor);
+			executor.shutdown();
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * @param executor NULL: thread per path
+	 */
+	protected static void _run(int size, String mode, DependencyGraph dGraph, ExecutorService executor) throws Exception {
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+		Scheduler scheduler = _createScheduler(dGraph);
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		threads.resetPeakThreadCount();
+		long start = System.nanoTime();
+		if (executor == null) {
+			plan.getStartStep().execute(scheduler);
+		} else {
+			plan.execute(scheduler, executor);
+		}
+		long duration = System.nanoTime() - start;
+
+		System.out.println(size + "\t" + mode + "\t" + duration/1000000 + "\t" + threads.getPeakThreadCount() + "\t" + plan.getFinishedScripts().size());
+	}
+
+	protected static Scheduler _createScheduler(DependencyGraph dGraph) {
+		List<Node> nodes = new ArrayList<Node>();
+		for (int i=1; i<=3; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+
+		return new SimpleScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				try {
+					Thread.sleep(DISPATCH_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,153 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDispatcher;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.PriorityScheduler;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Measures PriorityScheduler.scheduleWindow() for growing windows on NODES nodes:
+ * the memoized implementation vs the former one that evaluated the priorities inside the comparators.
+ *
+ * Every Monitoring.monitor() call costs MONITOR_MICROS (a remote call in the real system).
+ * Reported: best time per window out of RUNS + count of Monitoring.monitor() calls per window.
+ */
+public class SchedulingOverheadBenchmark {
+
+	protected static final int NODES = 32;
+	protected static final int SCRIPTS = 5000;
+	protected static final int MONITOR_MICROS = 10;
+	protected static final int RUNS = 3;
+
+
+	public static void main(String[] args) {
+		int[] windowSizes = new int[]{10, 100, 1000};
+		DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(42));
+		List<Script> scripts = new ArrayList<Script>(dGraph.getScripts());
+
+		List<Node> nodes = new ArrayList<Node>();
+		for (int i=1; i<=NODES; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+		CountingMonitoring monitoring = new CountingMonitoring();
+		MeasuredScheduler memoized = new MeasuredScheduler(dGraph, new DummyIO(nodes), monitoring, false);
+		MeasuredScheduler former = new MeasuredScheduler(dGraph, new DummyIO(nodes), monitoring, true);
+
+		System.out.println("window size\tmemoized [ms]\tmonitor() calls\tformer [ms]\tmonitor() calls");
+		for (int size: windowSizes) {
+			List<Script> window = scripts.subList(0, size);
+
+			long[] m = _measure(memoized, window, monitoring);
+			long[] f = _measure(former, window, monitoring);
+			System.out.println(size + "\t" + m[0]/1e6 + "\t" + m[1] + "\t" + f[0]/1e6 + "\t" + f[1]);
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * @return {best duration [ns], monitor() calls per window}
+	 */
+	protected static long[] _measure(MeasuredScheduler scheduler, List<Script> scripts, CountingMonitoring monitoring) {
+		long best = Long.MAX_VALUE;
+		long calls = 0;
+		for (int run=0; run<RUNS; run++) {
+			long callsBefore = monitoring.calls.get();
+			long start = System.nanoTime();
+			scheduler.scheduleWindow(scripts);
+			best = Math.min(best, System.nanoTime() - start);
+			calls = monitoring.calls.get() - callsBefore;
+		}
+		return new long[]{best, calls};
+	}
+
+
+	/* helper classes */
+	/**
+	 * Monitoring with constant random loads per node, every call busy-waits MONITOR_MICROS + gets counted
+	 */
+	protected static class CountingMonitoring extends Monitoring {
+		public final AtomicLong calls = new AtomicLong();
+
+		@Override
+		public Load monitor(Node node) {
+			calls.incrementAndGet();
+			long end = System.nanoTime() + MONITOR_MICROS * 1000L;
+			while (System.nanoTime() < end) {
+				// simulated remote call
+			}
+			Random random = new Random(node.getPort());
+			return new Load(random.nextDouble(), random.nextDouble());
+		}
+	}
+
+	/**
+	 * PriorityScheduler whose windows can be scheduled directly, optionally with the former implementation
+	 */
+	protected static class MeasuredScheduler extends PriorityScheduler {
+
+		public MeasuredScheduler(DependencyGraph collection, DummyIO io, Monitoring monitoring, boolean former) {
+			super(collection, io, monitoring, new DummyDispatcher());
+			_former = former;
+		}
+
+		public void scheduleWindow(List<Script> scripts) {
+			ThreadInfo[] threads = new ThreadInfo[scripts.size()];
+			for (int i=0; i<threads.length; i++) {
+				threads[i] = new ThreadInfo(scripts.get(i));
+			}
+
+			if (_former) {
+				_scheduleWindowFormer(new Window(threads));
+			} else {
+				scheduleWindow(new Window(threads));
+			}
+		}
+
+		/**
+		 * PriorityScheduler.scheduleWindow() before the priorities were memoized
+		 */
+		protected void _scheduleWindowFormer(Window window) {
+			List<ThreadInfo> threads = Arrays.asList(window.threads);
+			Collections.sort(threads, new Comparator<ThreadInfo>() {
+				@Override
+				public int compare(ThreadInfo o1, ThreadInfo o2) {
+					return Double.compare(getScriptPriority(o2.script), getScriptPriority(o1.script));
+				}
+			});
+
+			for (ThreadInfo threadInfo : threads) {
+				System.out.println("SCHEDULER: Priority of script " + threadInfo.script + ": " + getScriptPriority(threadInfo.script));
+			}
+
+			for (final ThreadInfo threadInfo : threads) {
+				List<Node> nodes = new ArrayList<Node>(io.getNodes());
+				Collections.sort(nodes, new Comparator<Node>() {
+					@Override
+					public int compare(Node o1, Node o2) {
+						return Double.compare(getNodePriority(threadInfo.script, o2), getNodePriority(threadInfo.script, o1));
+					}
+				});
+
+				for (Node node : nodes) {
+					System.out.println("SCHEDULER: Priority of node " + node + ": " + getNodePriority(threadInfo.script, node));
+				}
+
+				threadInfo.startExecution(nodes.isEmpty() ? null : nodes.get(0));
+			}
+		}
+
+		protected final boolean _former;
+	}
+}
@@ -0,0 +1,119 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Stress run for SynchronizationPoints: executes wide fan-in plans (root -> WIDTH scripts -> sink -> tail) RUNS times,
+ * reusing the same ExecutionPlan, with a Thread per path and on a pool.
+ *
+ * After every run each script must have been dispatched exactly once more => no step ran twice or got lost.
+ * Exits with status 1 on the first violation.
+ */
+public class SynchronizationStressBenchmark {
+
+	protected static final int WIDTH = 32;
+	protected static final int RUNS = 2000;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph dGraph = _createFanIn(WIDTH);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			System.out.println("mode\truns\tfan-in\ttime [ms]\tresult");
+			_stress("thread per path", dGraph, null);
+			_stress("pool of 8", dGraph, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * @param executor NULL: thread per path
+	 */
+	protected static void _stress(String mode, DependencyGraph dGraph, ExecutorService executor) throws Exception {
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+		ConcurrentMap<String,AtomicInteger> executions = new ConcurrentHashMap<String,AtomicInteger>();
+		Scheduler scheduler = _createScheduler(dGraph, executions);
+
+		String result = "OK";
+		long start = System.nanoTime();
+		for (int run=1; run<=RUNS && result.equals("OK"); run++) {
+			if (executor == null) {
+				plan.getStartStep().execute(scheduler);
+			} else {
+				plan.execute(scheduler, executor);
+			}
+
+			for (de.tum.in.fedsparql.inference.framework.Script script: dGraph.getScripts()) {
+				AtomicInteger count = executions.get(script.id);
+				int executed = count == null ? 0 : count.get();
+				if (executed != run) {
+					result = "FAILED in run " + run + ": " + script.id + " executed " + executed + " times";
+					break;
+				}
+			}
+		}
+		long duration = System.nanoTime() - start;
+
+		System.out.println(mode + "\t" + RUNS + "\t" + WIDTH + "\t" + duration/1000000 + "\t" + result);
+		if (!result.equals("OK")) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * root -> WIDTH parallel scripts -> sink (waits for all of them) -> tail
+	 */
+	protected static DependencyGraph _createFanIn(int width) {
+		List<de.tum.in.fedsparql.inference.framework.Script> scripts = new ArrayList<de.tum.in.fedsparql.inference.framework.Script>();
+		scripts.add(new de.tum.in.fedsparql.inference.framework.Script("root", new DatabaseID[0], new DatabaseID[]{new DatabaseID("root")}, ""));
+
+		DatabaseID[] branchOutputs = new DatabaseID[width];
+		for (int i=0; i<width; i++) {
+			branchOutputs[i] = new DatabaseID("b"+i);
+			scripts.add(new de.tum.in.fedsparql.inference.framework.Script("b"+i, new DatabaseID[]{new DatabaseID("root")}, new DatabaseID[]{branchOutputs[i]}, ""));
+		}
+
+		scripts.add(new de.tum.in.fedsparql.inference.framework.Script("sink", branchOutputs, new DatabaseID[]{new DatabaseID("sink")}, ""));
+		scripts.add(new de.tum.in.fedsparql.inference.framework.Script("tail", new DatabaseID[]{new DatabaseID("sink")}, new DatabaseID[]{new DatabaseID("tail")}, ""));
+
+		return new DependencyGraph(scripts.toArray(new de.tum.in.fedsparql.inference.framework.Script[scripts.size()]));
+	}
+
+	/**
+	 * SimpleScheduler whose Dispatcher only counts the executions per script
+	 */
+	protected static Scheduler _createScheduler(DependencyGraph dGraph, final ConcurrentMap<String,AtomicInteger> executions) {
+		List<Node> nodes = new ArrayList<Node>();
+		nodes.add(new Node("Node1", "localhost", 2221));
+
+		return new SimpleScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				String id = ((de.tum.in.fedsparql.inference.framework.Script) script).id;
+				executions.putIfAbsent(id, new AtomicInteger());
+				executions.get(id).incrementAndGet();
+			}
+		});
+	}
+}
@@ -0,0 +1,101 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.Script;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.dummy.DummyMonitoring;
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.PlanExecutor;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Executes SCRIPTS independent scripts (=> all of them are runnable at once), every dispatch blocks DISPATCH_MILLIS:
+ * - a platform Thread per parallel path (Start.execute()), only with SCRIPTS/10 scripts:
+ *   every arrival at its Finish checks + prints all the steps it waits for => quadratic
+ * - a fixed pool of POOL_SIZE platform threads
+ * - a virtual thread per script (a cached pool of platform threads before Java 21)
+ */
+public class VirtualThreadBenchmark {
+
+	protected static final int SCRIPTS = 10000;
+	protected static final int DISPATCH_MILLIS = 100;
+	protected static final int POOL_SIZE = 200;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph dGraph = _createIndependentScripts(SCRIPTS);
+
+		System.out.println("virtual threads supported: " + PlanExecutor.supportsVirtualThreads());
+		System.out.println("scripts\tmode\twall time [ms]\tpeak platform threads\texecuted scripts");
+
+		_run("platform thread per path", _createIndependentScripts(SCRIPTS/10), null);
+
+		ExecutorService pool = Executors.newFixedThreadPool(POOL_SIZE);
+		_run("fixed pool of " + POOL_SIZE, dGraph, pool);
+		pool.shutdown();
+
+		ExecutorService virtual = PlanExecutor.newVirtualThreadExecutor();
+		_run(PlanExecutor.supportsVirtualThreads() ? "virtual threads" : "cached pool", dGraph, virtual);
+		virtual.shutdown();
+	}
+
+
+	/* protected methods */
+	/**
+	 * @param executor NULL: thread per path
+	 */
+	protected static void _run(String mode, DependencyGraph dGraph, ExecutorService executor) throws Exception {
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+		Scheduler scheduler = _createScheduler(dGraph);
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		threads.resetPeakThreadCount();
+		long start = System.nanoTime();
+		if (executor == null) {
+			plan.getStartStep().execute(scheduler);
+		} else {
+			plan.execute(scheduler, executor);
+		}
+		long duration = System.nanoTime() - start;
+
+		System.out.println(dGraph.size() + "\t" + mode + "\t" + duration/1000000 + "\t" + threads.getPeakThreadCount() + "\t" + plan.getFinishedScripts().size());
+	}
+
+	protected static DependencyGraph _createIndependentScripts(int size) {
+		de.tum.in.fedsparql.inference.framework.Script[] scripts = new de.tum.in.fedsparql.inference.framework.Script[size];
+		for (int i=0; i<size; i++) {
+			scripts[i] = new de.tum.in.fedsparql.inference.framework.Script("s"+i, new DatabaseID[0], new DatabaseID[]{new DatabaseID("db"+i)}, "");
+		}
+
+		return new DependencyGraph(scripts);
+	}
+
+	protected static Scheduler _createScheduler(DependencyGraph dGraph) {
+		List<Node> nodes = new ArrayList<Node>();
+		for (int i=1; i<=3; i++) {
+			nodes.add(new Node("Node"+i, "localhost", 2220+i));
+		}
+
+		return new SimpleScheduler(dGraph, new DummyIO(nodes), new DummyMonitoring(), new Dispatcher() {
+			@Override
+			public void execute(Node node, Script script) {
+				try {
+					Thread.sleep(DISPATCH_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+}
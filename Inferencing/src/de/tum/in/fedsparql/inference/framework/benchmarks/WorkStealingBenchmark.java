@@ -0,0 +1,123 @@
+package de.tum.in.fedsparql.inference.framework.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tum.in.fedsparql.inference.dummy.DummyDatabase;
+import de.tum.in.fedsparql.inference.dummy.DummyIO;
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.NodeSlots;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.SimpleWindowedScheduler;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Executes a random DAG with SimpleWindowedScheduler + node slots on nodes with skewed cpu loads,
+ * with and without work stealing.
+ *
+ * Every node has SLOTS slots, a script takes SCRIPT_MILLIS / (1 - cpu load of the node)
+ * + REMOTE_MILLIS per input / output database hosted by another node.
+ * Reports the makespan + the latency percentiles of the script executions (scheduling + queueing + execution).
+ */
+public class WorkStealingBenchmark {
+
+	protected static final double[] CPU_LOADS = new double[]{0.0, 0.0, 0.0, 0.8};
+	protected static final int SLOTS = 2;
+	protected static final int SCRIPTS = 400;
+	protected static final int SCRIPT_MILLIS = 10;
+	protected static final int REMOTE_MILLIS = 1;
+
+
+	public static void main(String[] args) throws Exception {
+		DependencyGraph dGraph = PlanConstructionBenchmark.createDAG(SCRIPTS, new Random(42));
+
+		_run("no stealing", dGraph, false);
+		_run("work stealing", dGraph, true);
+	}
+
+
+	/* protected methods */
+	protected static void _run(String mode, DependencyGraph dGraph, boolean workStealing) throws Exception {
+		final List<Node> nodes = new ArrayList<Node>();
+		final Map<Node,Double> cpuLoads = new HashMap<Node,Double>();
+		NodeSlots slots = new NodeSlots(SLOTS);
+		for (int i=0; i<CPU_LOADS.length; i++) {
+			Node node = new Node("Node"+i, "localhost", 2220+i);
+			nodes.add(node);
+			cpuLoads.put(node, CPU_LOADS[i]);
+		}
+
+		// every database on a random node
+		final DummyIO io = new DummyIO(nodes);
+		Random random = new Random(42);
+		for (DatabaseID databaseID: dGraph.getOutputDatabases()) {
+			io.register(nodes.get(random.nextInt(nodes.size())), new DummyDatabase(databaseID.getName()));
+		}
+
+		Monitoring monitoring = new Monitoring() {
+			@Override
+			public Load monitor(Node node) {
+				return new Load(0.5, cpuLoads.get(node));
+			}
+		};
+		Dispatcher dispatcher = new Dispatcher() {
+			@Override
+			public void execute(Node node, de.tum.in.fedsparql.inference.Script script) {
+				Script s = (Script) script;
+				int remote = 0;
+				for (DatabaseID databaseID: s.inputDatabases) {
+					remote += io.getNodeForDatabase(databaseID.getName()) != node ? 1 : 0;
+				}
+				for (DatabaseID databaseID: s.outputDatabases) {
+					remote += io.getNodeForDatabase(databaseID.getName()) != node ? 1 : 0;
+				}
+				try {
+					Thread.sleep(Math.round(SCRIPT_MILLIS / (1 - cpuLoads.get(node))) + remote * REMOTE_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+
+		final List<Long> latencies = Collections.synchronizedList(new ArrayList<Long>());
+		SimpleWindowedScheduler scheduler = new SimpleWindowedScheduler(dGraph, io, monitoring, dispatcher) {
+			@Override
+			public void executeInternal(Script script, DependencyGraph collection) throws Exception {
+				long start = System.nanoTime();
+				super.executeInternal(script, collection);
+				latencies.add((System.nanoTime() - start) / 1000000);
+			}
+		};
+		scheduler.setNodeSlots(slots);
+		scheduler.setWorkStealing(workStealing);
+		ExecutionPlan plan = new ExecutionPlan(dGraph);
+
+		ExecutorService executor = Executors.newCachedThreadPool();
+		long start = System.nanoTime();
+		try {
+			plan.execute(scheduler, executor);
+		} finally {
+			executor.shutdown();
+		}
+		long makespan = (System.nanoTime() - start) / 1000000;
+
+		Collections.sort(latencies);
+		System.out.println(mode + ": makespan " + makespan + "ms, script latency p50 " + _percentile(latencies, 0.5)
+				+ "ms, p95 " + _percentile(latencies, 0.95) + "ms, p99 " + _percentile(latencies, 0.99)
+				+ "ms, max " + latencies.get(latencies.size() - 1) + "ms, " + slots.getSteals() + " steals");
+	}
+
+	protected static long _percentile(List<Long> sorted, double p) {
+		return sorted.get((int) Math.min(sorted.size() - 1, Math.floor(p * sorted.size())));
+	}
+}
@@ -0,0 +1,231 @@
+package de.tum.in.fedsparql.inference.framework.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Frozen, int-indexed Representation of a DirectedGraph (compressed sparse rows).
+ * Every Vertex gets a dense ID (0..size()-1), outgoing + incoming adjacencies are stored in primitive arrays
+ * sorted by Vertex-ID, so read-heavy Algorithms (Tarjan, TopologicalSorting, reachability) don't need to touch
+ * the hash-based object graph.
+ * 
+ * Later changes of the source graph are NOT reflected => compile again.
+ * 
+ * Adjacencies are iterated like:
+ * <pre>
+ * for (int i=cg.outBegin(v); i&lt;cg.outEnd(v); i++) {
+ *     int w = cg.outTarget(i);
+ * }
+ * </pre>
+ *
+ * @param <Vertex>
+ * @see DirectedGraph#compile()
+ */
+public class CompactGraph<Vertex> {
+
+	/* constructors */
+	/**
+	 * Compiles the given Graph.
+	 * 
+	 * @param graph
+	 */
+	public CompactGraph(DirectedGraph<Vertex> graph) {
+		this(graph, graph._vertices);
+	}
+	/**
+	 * Compiles the Sub-Graph induced by the given Vertices (edges leaving the subset are dropped).
+	 * 
+	 * @param graph
+	 * @param vertices Vertices of graph to include
+	 */
+	@SuppressWarnings("unchecked")
+	public CompactGraph(DirectedGraph<Vertex> graph, Set<? extends Vertex> vertices) {
+		int n = vertices.size();
+		_vertices = (Vertex[]) new Object[n];
+		_ids = new HashMap<Object,Integer>(n * 2);
+
+		int id=0;
+		for (Vertex v: vertices) {
+			_vertices[id] = v;
+			_ids.put(v, id);
+			id++;
+		}
+
+		// outgoing rows
+		List<int[]> rows = new ArrayList<int[]>(n);
+		int edgeCount=0;
+		for (int v=0; v<n; v++) {
+			int[] row = _row(graph._edges.get(_vertices[v]));
+			rows.add(row);
+			edgeCount += row.length;
+		}
+
+		_outOffsets = new int[n+1];
+		_outTargets = new int[edgeCount];
+		int pos=0;
+		for (int v=0; v<n; v++) {
+			_outOffsets[v] = pos;
+			int[] row = rows.get(v);
+			System.arraycopy(row, 0, _outTargets, pos, row.length);
+			pos += row.length;
+		}
+		_outOffsets[n] = pos;
+
+		// incoming rows = transposed outgoing rows (counting sort keeps the origins sorted)
+		_inOffsets = new int[n+1];
+		_inTargets = new int[edgeCount];
+		for (int i=0; i<edgeCount; i++) {
+			_inOffsets[_outTargets[i]+1]++;
+		}
+		for (int v=0; v<n; v++) {
+			_inOffsets[v+1] += _inOffsets[v];
+		}
+		int[] fill = Arrays.copyOf(_inOffsets, n);
+		for (int v=0; v<n; v++) {
+			for (int i=_outOffsets[v]; i<_outOffsets[v+1]; i++) {
+				_inTargets[fill[_outTargets[i]]++] = v;
+			}
+		}
+	}
+
+
+	/* public methods */
+	/**
+	 * @return the count of vertices
+	 */
+	public int size() {
+		return _vertices.length;
+	}
+	/**
+	 * @return the count of edges
+	 */
+	public int edgeCount() {
+		return _outTargets.length;
+	}
+
+	/**
+	 * @param vertex
+	 * @return the ID of the given Vertex || -1 if it isn't part of this Graph
+	 */
+	public int getID(Object vertex) {
+		Integer id = _ids.get(vertex);
+		return id!=null ? id : -1;
+	}
+	/**
+	 * @param id
+	 * @return the Vertex with the given ID
+	 */
+	public Vertex getVertex(int id) {
+		return _vertices[id];
+	}
+
+	/**
+	 * @param v Vertex-ID
+	 * @return first index of v's outgoing adjacencies
+	 */
+	public int outBegin(int v) {
+		return _outOffsets[v];
+	}
+	/**
+	 * @param v Vertex-ID
+	 * @return index behind the last of v's outgoing adjacencies
+	 */
+	public int outEnd(int v) {
+		return _outOffsets[v+1];
+	}
+	/**
+	 * @param i index in [outBegin(v), outEnd(v))
+	 * @return ID of the destination
+	 */
+	public int outTarget(int i) {
+		return _outTargets[i];
+	}
+	/**
+	 * @param v Vertex-ID
+	 * @return first index of v's incoming adjacencies
+	 */
+	public int inBegin(int v) {
+		return _inOffsets[v];
+	}
+	/**
+	 * @param v Vertex-ID
+	 * @return index behind the last of v's incoming adjacencies
+	 */
+	public int inEnd(int v) {
+		return _inOffsets[v+1];
+	}
+	/**
+	 * @param i index in [inBegin(v), inEnd(v))
+	 * @return ID of the origin
+	 */
+	public int inTarget(int i) {
+		return _inTargets[i];
+	}
+
+	/**
+	 * @param v Vertex-ID
+	 * @return count of outgoing edges
+	 */
+	public int outDegree(int v) {
+		return _outOffsets[v+1] - _outOffsets[v];
+	}
+	/**
+	 * @param v Vertex-ID
+	 * @return count of incoming edges
+	 */
+	public int inDegree(int v) {
+		return _inOffsets[v+1] - _inOffsets[v];
+	}
+
+	/**
+	 * Checks for an Edge using binary search on origin's sorted adjacencies.
+	 * 
+	 * @param origin Vertex-ID
+	 * @param destination Vertex-ID
+	 * @return true if the edge exists
+	 */
+	public boolean hasEdge(int origin, int destination) {
+		return Arrays.binarySearch(_outTargets, _outOffsets[origin], _outOffsets[origin+1], destination) >= 0;
+	}
+
+
+	/* protected methods */
+	/**
+	 * Converts a set of Edges into a sorted row of destination-IDs (destinations outside of this graph are dropped).
+	 * 
+	 * @param edges
+	 */
+	protected int[] _row(Set<? extends DirectedGraph<?>.Edge> edges) {
+		if (edges == null) return new int[0];
+
+		int[] row = new int[edges.size()];
+		int len=0;
+		for (DirectedGraph<?>.Edge edge: edges) {
+			Integer id = _ids.get(edge.destination);
+			if (id != null) {
+				row[len++] = id;
+			}
+		}
+		row = len<row.length ? Arrays.copyOf(row, len) : row;
+		Arrays.sort(row);
+
+		return row;
+	}
+
+
+	/* protected member */
+	/** ID => Vertex */
+	protected final Vertex[] _vertices;
+	/** Vertex => ID */
+	protected final Map<Object,Integer> _ids;
+	/** outgoing adjacencies of vertex v: _outTargets[_outOffsets[v]] .. _outTargets[_outOffsets[v+1]-1] */
+	protected final int[] _outOffsets;
+	protected final int[] _outTargets;
+	/** incoming adjacencies of vertex v: _inTargets[_inOffsets[v]] .. _inTargets[_inOffsets[v+1]-1] */
+	protected final int[] _inOffsets;
+	protected final int[] _inTargets;
+}
@@ -0,0 +1,389 @@
+package de.tum.in.fedsparql.inference.framework.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import de.tum.in.fedsparql.inference.framework.algorithms.Tarjan;
+
+/**
+ * Incrementally maintained Strongly-Connected-Components of a DirectedGraph.
+ *
+ * The components are kept in a topological order of the condensation (every edge between two components points
+ * to the one with the smaller position, like the order Tarjan completes them).
+ * - adding an edge that respects this order is O(1)
+ * - adding an edge that violates it only searches the components between both positions and either reorders them
+ *   or merges the components that became a cycle (Pearce-Kelly)
+ * - removing an edge/vertex only re-runs Tarjan on the affected component
+ *
+ * The DirectedGraph calls the *Added/*Removed methods after it changed its own edge maps.
+ *
+ * @param <Vertex>
+ */
+class ComponentTracker<Vertex> {
+
+	/* constructors */
+	/**
+	 * Determines the components of the given Graph from scratch.
+	 *
+	 * @param graph
+	 */
+	ComponentTracker(DirectedGraph<Vertex> graph) {
+		_graph = graph;
+
+		CompactGraph<Vertex> cg = graph.compile();
+		int[] componentIDs = Tarjan.getComponentIDs(cg);
+
+		for (int v=0; v<cg.size(); v++) {
+			while (_order.size() <= componentIDs[v]) {
+				_order.add(new Component());
+			}
+			Component c = _order.get(componentIDs[v]);
+			c.members.add(cg.getVertex(v));
+			_componentOf.put(cg.getVertex(v), c);
+		}
+		for (int i=0; i<_order.size(); i++) {
+			Component c = _order.get(i);
+			c.position = i;
+			_updateCyclic(c);
+		}
+	}
+
+
+	/* package-wide methods */
+	/**
+	 * @return true if at least one component contains an edge
+	 */
+	boolean containsCycle() {
+		return _cyclicCount > 0;
+	}
+	/**
+	 * @return the components as DirectedGraphs (cached, not to be modified)
+	 */
+	List<DirectedGraph<Vertex>> getComponents() {
+		if (_componentGraphs == null) {
+			List<DirectedGraph<Vertex>> graphs = new ArrayList<DirectedGraph<Vertex>>(_order.size());
+			for (Component c: _order) {
+				if (c != null) graphs.add(_getGraph(c));
+			}
+			_componentGraphs = graphs;
+		}
+		return _componentGraphs;
+	}
+	/**
+	 * @return the components that contain at least one edge as DirectedGraphs (cached, not to be modified)
+	 */
+	List<DirectedGraph<Vertex>> getCycles() {
+		List<DirectedGraph<Vertex>> cycles = new ArrayList<DirectedGraph<Vertex>>(_cyclicCount);
+		for (Component c: _order) {
+			if (c != null && c.cyclic) {
+				cycles.add(_getGraph(c));
+			}
+		}
+		return cycles;
+	}
+
+	void vertexAdded(Vertex vertex) {
+		Component c = new Component();
+		c.members.add(vertex);
+		c.position = _order.size();
+		_order.add(c);
+		_componentOf.put(vertex, c);
+
+		_componentGraphs = null;
+	}
+	/**
+	 * the vertex and all of its edges are already removed from the graph
+	 */
+	void vertexRemoved(Vertex vertex) {
+		Component c = _componentOf.remove(vertex);
+		if (c == null) return;
+
+		c.members.remove(vertex);
+		if (c.members.isEmpty()) {
+			if (c.cyclic) _cyclicCount--;
+			_order.remove(c.position);
+			_renumber(c.position);
+			_componentGraphs = null;
+		} else {
+			_split(c);
+		}
+	}
+
+	void edgeAdded(Vertex origin, Vertex destination) {
+		Component co = _componentOf.get(origin);
+		Component cd = _componentOf.get(destination);
+
+		if (co == cd) {
+			// inner edge (may be a new self-loop)
+			co.graph = null;
+			_updateCyclic(co);
+			_componentGraphs = null;
+		} else if (co.position < cd.position) {
+			// violates the order => reorder or merge
+			_reorder(co, cd);
+		}
+	}
+	/**
+	 * the edge is already removed from the graph
+	 */
+	void edgeRemoved(Vertex origin, Vertex destination) {
+		Component co = _componentOf.get(origin);
+		Component cd = _componentOf.get(destination);
+
+		if (co == cd && co != null) {
+			_split(co);
+		}
+	}
+
+
+	/* protected methods */
+	/**
+	 * Repairs the order after adding an edge co->cd with co.position < cd.position.
+	 */
+	protected void _reorder(Component co, Component cd) {
+		// everything cd reaches without dropping below co
+		Set<Component> forward = _search(cd, co.position, cd.position, true);
+		// everything reaching co without rising above cd
+		Set<Component> backward = _search(co, co.position, cd.position, false);
+
+		// components on a cycle through the new edge: reached from cd + reaching co
+		Set<Component> merged = new HashSet<Component>();
+		if (forward.contains(co)) {
+			for (Component c: forward) {
+				if (backward.contains(c)) merged.add(c);
+			}
+		}
+
+		List<Component> lower = _sorted(forward, merged);
+		List<Component> upper = _sorted(backward, merged);
+
+		// pool of positions the affected components occupy
+		List<Integer> positions = new ArrayList<Integer>();
+		for (Component c: forward) positions.add(c.position);
+		for (Component c: backward) if (!forward.contains(c)) positions.add(c.position);
+		Collections.sort(positions);
+
+		// lower takes the lowest slots + upper the highest (so neither moves past an unaffected component
+		// it has an edge with), the merged component the slot directly after lower, freed slots stay empty
+		for (int i=0; i<lower.size(); i++) {
+			_place(lower.get(i), positions.get(i));
+		}
+		int free = lower.size();
+		if (!merged.isEmpty()) {
+			_place(_merge(merged), positions.get(free++));
+		}
+		int offset = positions.size() - upper.size();
+		for (int i=free; i<offset; i++) {
+			_order.set(positions.get(i), null);
+			_freeSlots++;
+		}
+		for (int i=0; i<upper.size(); i++) {
+			_place(upper.get(i), positions.get(offset + i));
+		}
+
+		// compact once most slots are free => amortized O(1) per freed slot
+		if (2 * _freeSlots > _order.size()) {
+			_renumber(0);
+		}
+
+		_componentGraphs = null;
+	}
+	/**
+	 * BFS over components, restricted to the positions [min, max].
+	 *
+	 * @param start
+	 * @param min
+	 * @param max
+	 * @param forward true: follow outgoing edges || false: follow incoming edges
+	 */
+	protected Set<Component> _search(Component start, int min, int max, boolean forward) {
+		Set<Component> visited = new HashSet<Component>();
+		Queue<Component> queue = new LinkedList<Component>();
+		visited.add(start);
+		queue.add(start);
+
+		while (!queue.isEmpty()) {
+			Component c = queue.remove();
+			for (Vertex v: c.members) {
+				Set<DirectedGraph<Vertex>.Edge> edges = forward ? _graph._edges.get(v) : _graph._incomingEdges.get(v);
+				if (edges == null) continue;
+
+				for (DirectedGraph<Vertex>.Edge edge: edges) {
+					Component next = _componentOf.get(forward ? edge.destination : edge.origin);
+					if (next != null && next.position >= min && next.position <= max && visited.add(next)) {
+						queue.add(next);
+					}
+				}
+			}
+		}
+
+		return visited;
+	}
+	/**
+	 * @return components \ exclude, sorted by position
+	 */
+	protected List<Component> _sorted(Set<Component> components, Set<Component> exclude) {
+		List<Component> sorted = new ArrayList<Component>();
+		for (Component c: components) {
+			if (!exclude.contains(c)) sorted.add(c);
+		}
+		Collections.sort(sorted, new Comparator<Component>() {
+			@Override
+			public int compare(Component c1, Component c2) {
+				return c1.position - c2.position;
+			}
+		});
+		return sorted;
+	}
+	/**
+	 * puts a component into a slot of _order
+	 */
+	protected void _place(Component c, int position) {
+		_order.set(position, c);
+		c.position = position;
+	}
+	/**
+	 * Merges components into the biggest of them.
+	 *
+	 * @return the merged component
+	 */
+	protected Component _merge(Set<Component> components) {
+		Component target = null;
+		for (Component c: components) {
+			if (target == null || c.members.size() > target.members.size()) target = c;
+		}
+
+		for (Component c: components) {
+			if (c == target) continue;
+
+			if (c.cyclic) _cyclicCount--;
+			for (Vertex v: c.members) {
+				_componentOf.put(v, target);
+			}
+			target.members.addAll(c.members);
+		}
+		target.graph = null;
+		_updateCyclic(target);
+
+		return target;
+	}
+	/**
+	 * Re-runs Tarjan on a single component (after an inner edge or a member was removed)
+	 * + replaces it by its new components.
+	 */
+	protected void _split(Component c) {
+		if (c.cyclic) _cyclicCount--;
+
+		CompactGraph<Vertex> cg = new CompactGraph<Vertex>(_graph, c.members);
+		int[] componentIDs = Tarjan.getComponentIDs(cg);
+
+		List<Component> parts = new ArrayList<Component>();
+		for (int v=0; v<cg.size(); v++) {
+			while (parts.size() <= componentIDs[v]) {
+				parts.add(new Component());
+			}
+			parts.get(componentIDs[v]).members.add(cg.getVertex(v));
+			_componentOf.put(cg.getVertex(v), parts.get(componentIDs[v]));
+		}
+
+		// Tarjan's order within the component is a valid order for the sub-components
+		int position = c.position;
+		_order.remove(position);
+		_order.addAll(position, parts);
+		_renumber(position);
+		for (Component part: parts) {
+			part.cyclic = false;
+			_updateCyclic(part);
+		}
+
+		_componentGraphs = null;
+	}
+	/**
+	 * recalculates the cyclic flag of a component + the cycle counter
+	 */
+	protected void _updateCyclic(Component c) {
+		boolean cyclic = c.members.size() > 1;
+		if (!cyclic) {
+			Vertex v = c.members.iterator().next();
+			cyclic = _graph.getEdge(v, v) != null;
+		}
+
+		if (cyclic && !c.cyclic) _cyclicCount++;
+		if (!cyclic && c.cyclic) _cyclicCount--;
+		c.cyclic = cyclic;
+	}
+	/**
+	 * updates the positions of all components starting at `from` + drops the free slots among them
+	 */
+	protected void _renumber(int from) {
+		int position = from;
+		for (int i=from; i<_order.size(); i++) {
+			Component c = _order.get(i);
+			if (c == null) continue;
+
+			_order.set(position, c);
+			c.position = position++;
+		}
+		_freeSlots -= _order.size() - position;
+		_order.subList(position, _order.size()).clear();
+	}
+	/**
+	 * @return the (cached) DirectedGraph of a component: its members + the edges between them
+	 */
+	protected DirectedGraph<Vertex> _getGraph(Component c) {
+		if (c.graph == null) {
+			DirectedGraph<Vertex> graph = new DirectedGraph<Vertex>();
+			for (Vertex v: c.members) {
+				graph.addVertex(v);
+			}
+			for (Vertex v: c.members) {
+				Set<DirectedGraph<Vertex>.Edge> edges = _graph._edges.get(v);
+				if (edges == null) continue;
+
+				for (DirectedGraph<Vertex>.Edge edge: edges) {
+					graph.addEdge(edge.origin, edge.destination);
+				}
+			}
+			c.graph = graph;
+		}
+		return c.graph;
+	}
+
+
+	/* helper classes */
+	/**
+	 * a single Strongly-Connected-Component
+	 */
+	protected class Component {
+		/** vertices of the component */
+		public Set<Vertex> members = new HashSet<Vertex>();
+		/** index in _order */
+		public int position;
+		/** true if the component contains at least one edge */
+		public boolean cyclic = false;
+		/** cached DirectedGraph of the component (null if outdated) */
+		public DirectedGraph<Vertex> graph = null;
+	}
+
+
+	/* protected member */
+	protected final DirectedGraph<Vertex> _graph;
+	/** topological order of the components (edges point to smaller positions), null: slot freed by a merge */
+	protected List<Component> _order = new ArrayList<Component>();
+	/** Vertex => its component */
+	protected Map<Vertex,Component> _componentOf = new HashMap<Vertex,Component>();
+	/** count of free (null) slots in _order */
+	protected int _freeSlots = 0;
+	/** count of components containing at least one edge */
+	protected int _cyclicCount = 0;
+	/** cached result of getComponents() (null if outdated) */
+	protected List<DirectedGraph<Vertex>> _componentGraphs = null;
+}
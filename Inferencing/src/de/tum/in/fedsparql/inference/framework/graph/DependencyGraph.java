@@ -2,9 +2,7 @@ package de.tum.in.fedsparql.inference.framework.graph;
 
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 import de.tum.in.fedsparql.inference.framework.DatabaseID;
@@ -241,32 +239,46 @@ public class DependencyGraph extends DirectedGraph<Script> {
 	}
 	/**
 	 * Gets all Dependencies (including inherited ones) of the given Script.
+	 * (served by the cached ReachabilityIndex)
 	 *
 	 * @param script
 	 * @return Set of Scripts the given Script depends on
 	 */
 	public Set<Script> getAllDependencies(Script script) {
-		Set<Script> dependencies = new HashSet<Script>();
-
-		Queue<Script> queue = new LinkedList<Script>();
-		Set<Script> processed = new HashSet<Script>();
-
-		// init with direct dependencies
-		dependencies.addAll(this.getDirectDependencies(script));
-		queue.addAll(dependencies);
-
-		while (!queue.isEmpty()) {
-			Script qItem = queue.remove();
-
-			Set<Script> qItemDeps = this.getDirectDependencies(qItem);
-			dependencies.addAll(qItemDeps);
-			qItemDeps.removeAll(processed);
-			queue.addAll(qItemDeps);
-
-			processed.add(qItem);
+		return this.getReachabilityIndex().getReachable(script);
+	}
+	/**
+	 * Counts all Dependencies (including inherited ones) of the given Script without materializing them.
+	 * 
+	 * @param script
+	 * @return the same as getAllDependencies(script).size()
+	 */
+	public int getAllDependenciesCount(Script script) {
+		return this.getReachabilityIndex().countReachable(script);
+	}
+	/**
+	 * Checks if a Script depends on another one, directly or inherited.
+	 * 
+	 * @param script
+	 * @param dependency
+	 * @return true if getAllDependencies(script) contains dependency
+	 */
+	public boolean dependsOn(Script script, Script dependency) {
+		return this.getReachabilityIndex().reaches(script, dependency);
+	}
+	/**
+	 * Gets the transitive closure of this Graph.
+	 * Computed on first use and cached until the next added/removed Script or Dependency.
+	 * 
+	 * @see ReachabilityIndex
+	 */
+	public ReachabilityIndex<Script> getReachabilityIndex() {
+		ReachabilityIndex<Script> reachability = _reachability;
+		if (reachability == null) {
+			reachability = new ReachabilityIndex<Script>(this.compile());
+			_reachability = reachability;
 		}
-
-		return dependencies;
+		return reachability;
 	}
 	/**
 	 * Gets all manually added dependencies.
@@ -311,7 +323,7 @@ public class DependencyGraph extends DirectedGraph<Script> {
 		Set<Script> ret = new HashSet<Script>();
 
 		for (Script script: this.getScripts()) {
-			if (this.getAllDependencies(script).size() <= 0) {
+			if (this.getAllDependenciesCount(script) <= 0) {
 				ret.add(new Script(script));
 			}
 		}
@@ -431,6 +443,11 @@ public class DependencyGraph extends DirectedGraph<Script> {
 
 	/* protected overrides */
 	@Override
+	protected void _invalidateCaches() {
+		super._invalidateCaches();
+		_reachability = null;
+	}
+	@Override
 	protected void _onVertexAdded(Script script) {
 		// add script to the Input-Database-Relation-Cache
 		for (DatabaseID iDB: script.inputDatabases) {
@@ -587,4 +604,6 @@ public class DependencyGraph extends DirectedGraph<Script> {
 	 *  Script => Set of Dependencies
 	 */
 	protected Map<Script,Set<Script>> _manuallyRemovedDependencies=new HashMap<Script,Set<Script>>();
+	/** cached transitive closure (null if outdated) */
+	protected ReachabilityIndex<Script> _reachability=null;
 }
@@ -30,7 +30,12 @@ public class DirectedGraph<Vertex> {
 	public DirectedGraph(DirectedGraph<Vertex> dGraph) {
 		if (dGraph != null) {
 			this._vertices = new HashSet<Vertex>(dGraph._vertices);
-			this._edges = new HashMap<Vertex,Set<Edge>>(dGraph._edges);
+			for (Vertex origin: dGraph._edges.keySet()) {
+				this._edges.put(origin, new HashSet<Edge>(dGraph._edges.get(origin)));
+			}
+			for (Vertex destination: dGraph._incomingEdges.keySet()) {
+				this._incomingEdges.put(destination, new HashSet<Edge>(dGraph._incomingEdges.get(destination)));
+			}
 		}
 	}
 
@@ -138,19 +143,16 @@ public class DirectedGraph<Vertex> {
 
 		return new HashSet<Edge>(_edges.get(origin));
 	}
+	/**
+	 * Gets all Edges that point to a specific Vertex.
+	 * (uses the incoming-edge index => only costs the Vertex's in-degree)
+	 * 
+	 * @param destination
+	 */
 	public Set<Edge> getEdgesIncoming(Object destination) {
-		Set<Edge> incomingEdges = new HashSet<Edge>();
-
-		if (_vertices.contains(destination)) {
-			Set<Edge> edges = this.getEdges();
-			for (Edge edge: edges) {
-				if (edge.destination!=null ? edge.destination.equals(destination) : destination==null) {
-					incomingEdges.add(edge);
-				}
-			}
-		}
+		if (!_incomingEdges.containsKey(destination)) return new HashSet<Edge>();
 
-		return incomingEdges;
+		return new HashSet<Edge>(_incomingEdges.get(destination));
 	}
 	/**
 	 * Looks for a specific Edge and returns it if available.
@@ -172,50 +174,50 @@ public class DirectedGraph<Vertex> {
 
 
 	/**
-	 * Uses Tarjan to determine the Strongly-Connected-Components of this Graph.
+	 * Gets the Strongly-Connected-Components of this Graph.
+	 * Tarjan is only run on the first call, afterwards the components are maintained incrementally on every change.
+	 * Returns copies of the cached components => modifying them doesn't affect this Graph.
+	 * Ordered like Tarjan completes them (edges between components point to earlier ones).
 	 * 
 	 * @see Tarjan
+	 * @see ComponentTracker
 	 */
-	@SuppressWarnings("unchecked")
 	public List<DirectedGraph<Vertex>> getStronglyConnectedComponents() {
-		List<DirectedGraph<?>> sccs = (new Tarjan(this)).getSCCs();
-
-		List<DirectedGraph<Vertex>> castedSccs = new ArrayList<DirectedGraph<Vertex>>();
-		for (DirectedGraph<?> scc: sccs) {
-			castedSccs.add((DirectedGraph<Vertex>) scc);
-		}
-		return castedSccs;
+		return _copy(_getComponentTracker().getComponents());
 	}
 
 	/**
 	 * Gets all Cycles as (Sub-)DirectedGraphs (SCCs with >0 edges).
 	 * Information about manually added / removed  Dependencies will get lost.
 	 * 
-	 * (Uses the Tarjan Algorithm)
 	 * @see #getStronglyConnectedComponents()
 	 */
 	public List<DirectedGraph<Vertex>> getCycles() {
-		List<DirectedGraph<Vertex>> cycles = new ArrayList<DirectedGraph<Vertex>>();
-
-		List<DirectedGraph<Vertex>> sccs = this.getStronglyConnectedComponents();
-		for (DirectedGraph<Vertex> scc: sccs) {
-			if (scc.getEdges().size() > 0) {
-				cycles.add(scc);
-			}
-		}
-
-		return cycles;
+		return _copy(_getComponentTracker().getCycles());
 	}
 
 	/**
 	 * Checks if this Graph contains Cycles.
-	 * (Uses this.getCycles())
+	 * O(1) once the components are tracked.
 	 * 
 	 * @return true if it contains at least 1 cycle
 	 * @see {@link #getCycles()}
 	 */
 	public boolean containsCycle() {
-		return this.getCycles().size() > 0;
+		return _getComponentTracker().containsCycle();
+	}
+
+	/**
+	 * Compiles this Graph into a frozen, int-indexed CompactGraph for read-heavy Algorithms.
+	 * The result is cached until this Graph gets modified.
+	 * 
+	 * @see CompactGraph
+	 */
+	public CompactGraph<Vertex> compile() {
+		if (_compiled == null) {
+			_compiled = new CompactGraph<Vertex>(this);
+		}
+		return _compiled;
 	}
 
 	/**
@@ -272,11 +274,8 @@ public class DirectedGraph<Vertex> {
 		}
 		@Override
 		public int hashCode() {
-			return new String(
-					(this.origin!=null ? this.origin.hashCode()+"" : "NULL")
-					+ "|"
-					+ (this.destination!=null ? this.destination.hashCode()+"" : "NULL")
-					).hashCode();
+			return 31 * (this.origin!=null ? this.origin.hashCode() : 0)
+					+ (this.destination!=null ? this.destination.hashCode() : 0);
 		}
 		@Override
 		public String toString() {
@@ -295,6 +294,11 @@ public class DirectedGraph<Vertex> {
 	 */
 	protected void _addVertex(Vertex vertex) {
 		_vertices.add(vertex);
+		_invalidateCaches();
+
+		if (_components != null) {
+			_components.vertexAdded(vertex);
+		}
 	}
 	/**
 	 * Actual Vertex Removing.
@@ -303,15 +307,22 @@ public class DirectedGraph<Vertex> {
 	 * @param vertex
 	 */
 	protected void _remVertex(Vertex vertex) {
-		Set<Edge> edges = this.getEdges();
-		for (Edge edge: edges) {
-			if ((edge.origin!=null ? edge.origin.equals(vertex) : vertex==null)
-					|| (edge.destination!=null ? edge.destination.equals(vertex) : vertex==null)) {
-				_remEdge(edge.origin, edge.destination);
-			}
+		// only the vertex's own outgoing + incoming edges need to be touched
+		for (Edge edge: this.getEdges(vertex)) {
+			_unlinkEdge(edge.origin, edge.destination);
+		}
+		for (Edge edge: this.getEdgesIncoming(vertex)) {
+			_unlinkEdge(edge.origin, edge.destination);
 		}
+		_edges.remove(vertex);
+		_incomingEdges.remove(vertex);
 
 		_vertices.remove(vertex);
+		_invalidateCaches();
+
+		if (_components != null) {
+			_components.vertexRemoved(vertex);
+		}
 	}
 	/**
 	 * Actual Edge Adding.
@@ -325,6 +336,16 @@ public class DirectedGraph<Vertex> {
 			_edges.put(origin, new HashSet<Edge>());
 		}
 		_edges.get(origin).add(edge);
+
+		if (!_incomingEdges.containsKey(destination)) {
+			_incomingEdges.put(destination, new HashSet<Edge>());
+		}
+		_incomingEdges.get(destination).add(edge);
+		_invalidateCaches();
+
+		if (_components != null) {
+			_components.edgeAdded(origin, destination);
+		}
 	}
 	/**
 	 * Actual Edge Removing.
@@ -333,10 +354,57 @@ public class DirectedGraph<Vertex> {
 	 * @param vertex
 	 */
 	protected void _remEdge(Vertex origin, Vertex destination) {
+		if (_unlinkEdge(origin, destination)) {
+			_invalidateCaches();
+
+			if (_components != null) {
+				_components.edgeRemoved(origin, destination);
+			}
+		}
+	}
+	/**
+	 * Removes an Edge from both edge maps, nothing else.
+	 * 
+	 * @param origin
+	 * @param destination
+	 * @return true if the edge existed
+	 */
+	protected boolean _unlinkEdge(Vertex origin, Vertex destination) {
 		Edge edge= new Edge(origin, destination);
+		boolean removed = false;
 		if (_edges.containsKey(origin)) {
-			_edges.get(origin).remove(edge);
+			removed = _edges.get(origin).remove(edge);
+		}
+		if (_incomingEdges.containsKey(destination)) {
+			_incomingEdges.get(destination).remove(edge);
 		}
+		return removed;
+	}
+	/**
+	 * @return the component tracker, created on first use
+	 */
+	protected ComponentTracker<Vertex> _getComponentTracker() {
+		if (_components == null) {
+			_components = new ComponentTracker<Vertex>(this);
+		}
+		return _components;
+	}
+	/**
+	 * @return (shallow) copies of the given Graphs
+	 */
+	protected List<DirectedGraph<Vertex>> _copy(List<DirectedGraph<Vertex>> graphs) {
+		List<DirectedGraph<Vertex>> copies = new ArrayList<DirectedGraph<Vertex>>(graphs.size());
+		for (DirectedGraph<Vertex> graph: graphs) {
+			copies.add(new DirectedGraph<Vertex>(graph));
+		}
+		return copies;
+	}
+	/**
+	 * Drops everything derived from the structure of this Graph.
+	 * Gets called by every structural change, derivations caching additional data need to call super.
+	 */
+	protected void _invalidateCaches() {
+		_compiled = null;
 	}
 
 
@@ -373,4 +441,10 @@ public class DirectedGraph<Vertex> {
 	protected Set<Vertex> _vertices = new HashSet<Vertex>();
 	/** edges of this graph (edges in the value-set origin from the key) */
 	protected Map<Vertex,Set<Edge>> _edges = new HashMap<Vertex,Set<Edge>>();
+	/** reverse index of _edges (edges in the value-set point to the key), holds the same Edge instances */
+	protected Map<Vertex,Set<Edge>> _incomingEdges = new HashMap<Vertex,Set<Edge>>();
+	/** cached result of compile() (null if outdated) */
+	protected CompactGraph<Vertex> _compiled = null;
+	/** incrementally maintained Strongly-Connected-Components (null until first requested) */
+	protected ComponentTracker<Vertex> _components = null;
 }
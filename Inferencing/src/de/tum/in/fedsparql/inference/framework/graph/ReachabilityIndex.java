@@ -0,0 +1,131 @@
+package de.tum.in.fedsparql.inference.framework.graph;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import de.tum.in.fedsparql.inference.framework.algorithms.Tarjan;
+
+/**
+ * Transitive Closure of a compiled Graph: one BitSet (indexed by Vertex-ID) per Strongly-Connected-Component.
+ * Built once in reverse topological order over the SCC-condensation, so each component only merges the
+ * already finished sets of its successors.
+ * Afterwards "is w reachable from v" is a bit lookup and "how many vertices are reachable from v" a popcount.
+ * 
+ * A Vertex only reaches itself if it is part of a cycle (same semantics as a BFS over the edges).
+ * Memory: one bit per (component, vertex) pair.
+ *
+ * @param <Vertex>
+ * @see DependencyGraph#getAllDependencies(de.tum.in.fedsparql.inference.framework.Script)
+ */
+public class ReachabilityIndex<Vertex> {
+
+	/* constructors */
+	/**
+	 * Computes the transitive closure of the given Graph.
+	 * 
+	 * @param graph
+	 */
+	public ReachabilityIndex(CompactGraph<Vertex> graph) {
+		_graph = graph;
+		_component = Tarjan.getComponentIDs(graph);
+
+		int n = graph.size();
+		int components = 0;
+		for (int v=0; v<n; v++) {
+			components = Math.max(components, _component[v]+1);
+		}
+
+		// bucket the vertices by component
+		int[] memberOffsets = new int[components+1];
+		for (int v=0; v<n; v++) {
+			memberOffsets[_component[v]+1]++;
+		}
+		for (int c=0; c<components; c++) {
+			memberOffsets[c+1] += memberOffsets[c];
+		}
+		int[] members = new int[n];
+		int[] fill = new int[components];
+		for (int v=0; v<n; v++) {
+			int c = _component[v];
+			members[memberOffsets[c] + fill[c]++] = v;
+		}
+
+		// successors of a component always have smaller IDs => ascending order is a valid processing order
+		_reachable = new BitSet[components];
+		for (int c=0; c<components; c++) {
+			BitSet reachable = new BitSet(n);
+			boolean cyclic = false;
+
+			for (int m=memberOffsets[c]; m<memberOffsets[c+1]; m++) {
+				int v = members[m];
+				for (int i=graph.outBegin(v); i<graph.outEnd(v); i++) {
+					int w = graph.outTarget(i);
+					if (_component[w] == c) {
+						cyclic = true;
+					} else if (!reachable.get(w)) {
+						reachable.set(w);
+						reachable.or(_reachable[_component[w]]);
+					}
+				}
+			}
+			if (cyclic) {
+				for (int m=memberOffsets[c]; m<memberOffsets[c+1]; m++) {
+					reachable.set(members[m]);
+				}
+			}
+
+			_reachable[c] = reachable;
+		}
+	}
+
+
+	/* public methods */
+	/**
+	 * @param origin
+	 * @param destination
+	 * @return true if there is a path (of at least one edge) from origin to destination
+	 */
+	public boolean reaches(Object origin, Object destination) {
+		int o = _graph.getID(origin);
+		int d = _graph.getID(destination);
+		if (o<0 || d<0) return false;
+
+		return _reachable[_component[o]].get(d);
+	}
+	/**
+	 * @param origin
+	 * @return the count of vertices reachable from origin
+	 */
+	public int countReachable(Object origin) {
+		int o = _graph.getID(origin);
+		if (o<0) return 0;
+
+		return _reachable[_component[o]].cardinality();
+	}
+	/**
+	 * @param origin
+	 * @return Set of all Vertices reachable from origin
+	 */
+	public Set<Vertex> getReachable(Object origin) {
+		Set<Vertex> reachable = new HashSet<Vertex>();
+
+		int o = _graph.getID(origin);
+		if (o<0) return reachable;
+
+		BitSet bits = _reachable[_component[o]];
+		for (int v=bits.nextSetBit(0); v>=0; v=bits.nextSetBit(v+1)) {
+			reachable.add(_graph.getVertex(v));
+		}
+
+		return reachable;
+	}
+
+
+	/* protected member */
+	protected final CompactGraph<Vertex> _graph;
+	/** Vertex-ID => component-ID */
+	protected final int[] _component;
+	/** component-ID => IDs of the Vertices reachable from the component */
+	protected final BitSet[] _reachable;
+}
@@ -0,0 +1,49 @@
+package de.tum.in.fedsparql.inference.framework.metrics;
+
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.Fork;
+import de.tum.in.fedsparql.inference.framework.plan.SynchronizationPoint;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Gets notified about the execution of an ExecutionPlan, register it with Scheduler.addExecutionListener().
+ *
+ * The methods are called by the executing threads => they have to be thread-safe + must not block.
+ * Plan, Fork + SynchronizationPoint events are only reported by runs on a PlanExecutor (ExecutionPlan.execute()),
+ * script executions by every run.
+ */
+public interface ExecutionListener {
+
+	/**
+	 * the plan's execution started
+	 */
+	void planStarted(ExecutionPlan plan);
+
+	/**
+	 * the plan's execution terminated
+	 * @param makespan [ns] from planStarted() to the termination
+	 * @param failure the exception that aborted the execution, null if it succeeded
+	 */
+	void planFinished(ExecutionPlan plan, long makespan, Exception failure);
+
+	/**
+	 * a script got executed successfully
+	 * @param node the node it was executed on
+	 * @param schedulingDelay [ns] from handing the script to the scheduler until the scheduler selected a node
+	 * @param queueWait [ns] waiting for a slot of the node (0 without node slots)
+	 * @param dispatchTime [ns] the dispatcher took to execute the script
+	 */
+	void scriptExecuted(Script script, Node node, long schedulingDelay, long queueWait, long dispatchTime);
+
+	/**
+	 * the execution got split into `fanOut` parallel paths
+	 */
+	void forked(Fork fork, int fanOut);
+
+	/**
+	 * the last path arrived at the synchronization point
+	 * @param wait [ns] between the first + the last arrival
+	 */
+	void synchronizationCompleted(SynchronizationPoint synchronizationPoint, long wait);
+}
@@ -0,0 +1,33 @@
+package de.tum.in.fedsparql.inference.framework.metrics;
+
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.Fork;
+import de.tum.in.fedsparql.inference.framework.plan.SynchronizationPoint;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * ExecutionListener ignoring all events, override the interesting ones.
+ */
+public abstract class ExecutionListenerAdapter implements ExecutionListener {
+
+	@Override
+	public void planStarted(ExecutionPlan plan) {
+	}
+
+	@Override
+	public void planFinished(ExecutionPlan plan, long makespan, Exception failure) {
+	}
+
+	@Override
+	public void scriptExecuted(Script script, Node node, long schedulingDelay, long queueWait, long dispatchTime) {
+	}
+
+	@Override
+	public void forked(Fork fork, int fanOut) {
+	}
+
+	@Override
+	public void synchronizationCompleted(SynchronizationPoint synchronizationPoint, long wait) {
+	}
+}
@@ -0,0 +1,190 @@
+package de.tum.in.fedsparql.inference.framework.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.Fork;
+import de.tum.in.fedsparql.inference.framework.plan.SynchronizationPoint;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Collects the metrics of all plan executions it listens to:
+ * - per script: scheduling delay, queue wait + dispatch time histograms
+ * - per node: executed scripts + dispatch time => throughput over the makespans of all plans
+ * - fork fan-out, synchronization point waits
+ * - makespan of the last plan execution + of all plan executions
+ *
+ * Usage: scheduler.addExecutionListener(metrics); plan.execute(scheduler); System.out.println(metrics);
+ */
+public class ExecutionMetrics extends ExecutionListenerAdapter {
+
+	/* overridden methods */
+	@Override
+	public void planFinished(ExecutionPlan plan, long makespan, Exception failure) {
+		_plans.incrementAndGet();
+		if (failure != null) {
+			_failedPlans.incrementAndGet();
+		}
+		_makespan = makespan;
+		_totalMakespan.addAndGet(makespan);
+	}
+
+	@Override
+	public void scriptExecuted(Script script, Node node, long schedulingDelay, long queueWait, long dispatchTime) {
+		_schedulingDelay.record(schedulingDelay);
+		_queueWait.record(queueWait);
+		_dispatchTime.record(dispatchTime);
+
+		_counter(_scriptsPerNode, node).incrementAndGet();
+		_counter(_dispatchTimePerNode, node).addAndGet(dispatchTime);
+	}
+
+	@Override
+	public void forked(Fork fork, int fanOut) {
+		_forks.incrementAndGet();
+		_branches.addAndGet(fanOut);
+
+		long max = _maxFanOut.get();
+		while (fanOut > max && !_maxFanOut.compareAndSet(max, fanOut)) {
+			max = _maxFanOut.get();
+		}
+	}
+
+	@Override
+	public void synchronizationCompleted(SynchronizationPoint synchronizationPoint, long wait) {
+		_synchronizationWait.record(wait);
+	}
+
+	/**
+	 * overridden toString(): a report of all metrics
+	 */
+	@Override
+	public String toString() {
+		String str = "plans: " + getPlans() + " (" + getFailedPlans() + " failed), total makespan " + getTotalMakespan() / 1000000
+				+ "ms, last makespan " + getMakespan() / 1000000 + "ms\n";
+		str += "scheduling delay: " + _schedulingDelay + "\n";
+		str += "queue wait: " + _queueWait + "\n";
+		str += "dispatch time: " + _dispatchTime + "\n";
+		str += "synchronization wait: " + _synchronizationWait + "\n";
+		str += "forks: " + getForks() + ", mean fan-out " + String.format("%.2f", getMeanFanOut()) + ", max fan-out " + getMaxFanOut() + "\n";
+		for (Map.Entry<Node, AtomicLong> entry : _scriptsPerNode.entrySet()) {
+			str += entry.getKey().getName() + ": " + entry.getValue().get() + " scripts, "
+					+ String.format("%.1f", getThroughput(entry.getKey())) + " scripts/s, busy "
+					+ getDispatchTime(entry.getKey()) / 1000000 + "ms\n";
+		}
+		return str;
+	}
+
+
+	/* public methods */
+	public LatencyHistogram getSchedulingDelay() {
+		return _schedulingDelay;
+	}
+
+	public LatencyHistogram getQueueWait() {
+		return _queueWait;
+	}
+
+	public LatencyHistogram getDispatchTime() {
+		return _dispatchTime;
+	}
+
+	public LatencyHistogram getSynchronizationWait() {
+		return _synchronizationWait;
+	}
+
+	/**
+	 * @return count of finished plan executions
+	 */
+	public long getPlans() {
+		return _plans.get();
+	}
+
+	public long getFailedPlans() {
+		return _failedPlans.get();
+	}
+
+	/**
+	 * @return makespan [ns] of the last finished plan execution
+	 */
+	public long getMakespan() {
+		return _makespan;
+	}
+
+	/**
+	 * @return sum of the makespans [ns] of all finished plan executions
+	 */
+	public long getTotalMakespan() {
+		return _totalMakespan.get();
+	}
+
+	/**
+	 * @return count of scripts executed on the node
+	 */
+	public long getScripts(Node node) {
+		AtomicLong count = _scriptsPerNode.get(node);
+		return count != null ? count.get() : 0;
+	}
+
+	/**
+	 * @return sum of the dispatch times [ns] of the scripts executed on the node
+	 */
+	public long getDispatchTime(Node node) {
+		AtomicLong time = _dispatchTimePerNode.get(node);
+		return time != null ? time.get() : 0;
+	}
+
+	/**
+	 * @return scripts executed on the node per second of the makespans of all plans, 0 before the first plan finished
+	 */
+	public double getThroughput(Node node) {
+		long makespan = _totalMakespan.get();
+		return makespan > 0 ? getScripts(node) * 1e9 / makespan : 0;
+	}
+
+	public long getForks() {
+		return _forks.get();
+	}
+
+	public long getMaxFanOut() {
+		return _maxFanOut.get();
+	}
+
+	public double getMeanFanOut() {
+		long forks = _forks.get();
+		return forks > 0 ? (double) _branches.get() / forks : 0;
+	}
+
+
+	/* protected methods */
+	protected static AtomicLong _counter(ConcurrentMap<Node, AtomicLong> counters, Node node) {
+		AtomicLong counter = counters.get(node);
+		if (counter == null) {
+			AtomicLong existing = counters.putIfAbsent(node, counter = new AtomicLong());
+			if (existing != null) {
+				counter = existing;
+			}
+		}
+		return counter;
+	}
+
+
+	/* protected member */
+	protected final LatencyHistogram _schedulingDelay = new LatencyHistogram();
+	protected final LatencyHistogram _queueWait = new LatencyHistogram();
+	protected final LatencyHistogram _dispatchTime = new LatencyHistogram();
+	protected final LatencyHistogram _synchronizationWait = new LatencyHistogram();
+	protected final ConcurrentMap<Node, AtomicLong> _scriptsPerNode = new ConcurrentHashMap<Node, AtomicLong>();
+	protected final ConcurrentMap<Node, AtomicLong> _dispatchTimePerNode = new ConcurrentHashMap<Node, AtomicLong>();
+	protected final AtomicLong _forks = new AtomicLong();
+	protected final AtomicLong _branches = new AtomicLong();
+	protected final AtomicLong _maxFanOut = new AtomicLong();
+	protected final AtomicLong _plans = new AtomicLong();
+	protected final AtomicLong _failedPlans = new AtomicLong();
+	protected volatile long _makespan = 0;
+	protected final AtomicLong _totalMakespan = new AtomicLong();
+}
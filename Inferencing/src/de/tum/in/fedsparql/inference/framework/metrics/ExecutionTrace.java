@@ -0,0 +1,436 @@
+package de.tum.in.fedsparql.inference.framework.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionPlan;
+import de.tum.in.fedsparql.inference.framework.plan.ExecutionStep;
+import de.tum.in.fedsparql.inference.framework.plan.Finish;
+import de.tum.in.fedsparql.inference.framework.plan.Fork;
+import de.tum.in.fedsparql.inference.framework.plan.ScriptExecution;
+import de.tum.in.fedsparql.inference.framework.plan.SynchronizationPoint;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Records a timeline of the last plan execution it listened to: an Event per Start, Fork, ScriptExecution,
+ * SynchronizationPoint + Finish with its thread, node + timestamps.
+ *
+ * Afterwards it computes
+ * - the realised critical path: backwards from the last finished script, always to the dependency that finished last
+ * - the idle gaps of every node: time between the plan's start + end no script was dispatched to the node,
+ *   the whole makespan for the given nodes that got no script at all
+ * + exports everything in the Chrome trace event format (chrome://tracing, Perfetto).
+ *
+ * Usage: scheduler.addExecutionListener(trace); plan.execute(scheduler); trace.writeChromeTrace(writer);
+ */
+public class ExecutionTrace extends ExecutionListenerAdapter {
+
+	/* constants */
+	public static final String IDLE = "Idle";
+
+
+	/* helper classes */
+	/**
+	 * A step of the execution, times [ns] relative to the start of the plan.
+	 */
+	public static class Event {
+		/** the step's ID */
+		public final String name;
+		/** the step's class: Start, Fork, ScriptExecution, SynchronizationPoint, Finish - or IDLE for idle gaps */
+		public final String category;
+		public final String thread;
+		/** the node a script got executed on, null for other steps */
+		public final Node node;
+		/** ScriptExecution: handed to the scheduler, SynchronizationPoint: first arrival */
+		public final long start;
+		/** ScriptExecution: dispatched to the node (start + scheduling delay + queue wait), start for other steps */
+		public final long dispatched;
+		/** ScriptExecution: executed, SynchronizationPoint: last arrival */
+		public final long end;
+		/** the executed script, null for other steps */
+		public final Script script;
+
+		public Event(String name, String category, String thread, Node node, long start, long dispatched, long end, Script script) {
+			this.name = name;
+			this.category = category;
+			this.thread = thread;
+			this.node = node;
+			this.start = start;
+			this.dispatched = dispatched;
+			this.end = end;
+			this.script = script;
+		}
+
+		/**
+		 * @return ScriptExecution: scheduling delay + queue wait [ns], 0 for other steps
+		 */
+		public long getWait() {
+			return dispatched - start;
+		}
+
+		public long getDuration() {
+			return end - start;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s [%.3fms - %.3fms]%s", category, name, start / 1e6, end / 1e6,
+					node != null ? " on " + node.getName() + ", waited " + String.format("%.3fms", getWait() / 1e6) : "");
+		}
+	}
+
+
+	/* constructors */
+	/**
+	 * only nodes that executed scripts appear in the idle gaps
+	 */
+	public ExecutionTrace() {
+		this(Collections.<Node>emptyList());
+	}
+
+	/**
+	 * @param nodes nodes that appear in the idle gaps even if no script got dispatched to them, e.g. io.getNodes()
+	 */
+	public ExecutionTrace(Collection<Node> nodes) {
+		_nodes = new ArrayList<Node>(nodes);
+	}
+
+
+	/* overridden methods */
+	@Override
+	public synchronized void planStarted(ExecutionPlan plan) {
+		_events.clear();
+		_scriptEvents.clear();
+		_stepIDs.clear();
+		_dGraph = plan.getDependencyGraph();
+		for (ExecutionStep step : plan.getSteps()) {
+			if (step instanceof ScriptExecution) {
+				_stepIDs.put(((ScriptExecution) step).script, String.valueOf(step.getID()));
+			}
+		}
+
+		_planStart = System.nanoTime();
+		_planEnd = _planStart;
+		_add(new Event(String.valueOf(plan.getStartStep().getID()), "Start", Thread.currentThread().getName(), null, 0, 0, 0, null));
+	}
+
+	@Override
+	public synchronized void planFinished(ExecutionPlan plan, long makespan, Exception failure) {
+		_planEnd = _planStart + makespan;
+	}
+
+	@Override
+	public void scriptExecuted(Script script, Node node, long schedulingDelay, long queueWait, long dispatchTime) {
+		long end = System.nanoTime();
+		synchronized (this) {
+			long start = end - _planStart - dispatchTime - queueWait - schedulingDelay;
+			String name = _stepIDs.containsKey(script) ? _stepIDs.get(script) : String.valueOf(script);
+			Event event = new Event(name, "ScriptExecution", Thread.currentThread().getName(), node,
+					start, start + schedulingDelay + queueWait, end - _planStart, script);
+			_add(event);
+			_scriptEvents.put(script, event);
+		}
+	}
+
+	@Override
+	public void forked(Fork fork, int fanOut) {
+		long now = System.nanoTime();
+		synchronized (this) {
+			_add(new Event(String.valueOf(fork.getID()), "Fork", Thread.currentThread().getName(), null,
+					now - _planStart, now - _planStart, now - _planStart, null));
+		}
+	}
+
+	@Override
+	public void synchronizationCompleted(SynchronizationPoint synchronizationPoint, long wait) {
+		long now = System.nanoTime();
+		synchronized (this) {
+			String category = synchronizationPoint instanceof Finish ? "Finish" : "SynchronizationPoint";
+			_add(new Event(String.valueOf(synchronizationPoint.getID()), category, Thread.currentThread().getName(), null,
+					now - _planStart - wait, now - _planStart - wait, now - _planStart, null));
+		}
+	}
+
+	/**
+	 * overridden toString(): makespan, critical path + idle time per node
+	 */
+	@Override
+	public synchronized String toString() {
+		String str = String.format("makespan %.3fms, %d events\n", getMakespan() / 1e6, _events.size());
+
+		List<Event> criticalPath = getCriticalPath();
+		long waited = 0;
+		for (Event event : criticalPath) {
+			waited += event.getWait();
+		}
+		str += String.format("critical path: %d scripts, %.3fms waiting for scheduling + slots\n", criticalPath.size(), waited / 1e6);
+		for (Event event : criticalPath) {
+			str += "  " + event + "\n";
+		}
+
+		for (Map.Entry<Node, List<Event>> entry : getIdleGaps().entrySet()) {
+			long idle = 0;
+			long longest = 0;
+			for (Event gap : entry.getValue()) {
+				idle += gap.getDuration();
+				longest = Math.max(longest, gap.getDuration());
+			}
+			str += String.format("%s: idle %.3fms in %d gaps, longest %.3fms\n",
+					entry.getKey().getName(), idle / 1e6, entry.getValue().size(), longest / 1e6);
+		}
+		return str;
+	}
+
+
+	/* public methods */
+	/**
+	 * @return all recorded events ordered by their start
+	 */
+	public synchronized List<Event> getEvents() {
+		List<Event> events = new ArrayList<Event>(_events);
+		Collections.sort(events, new Comparator<Event>() {
+			@Override
+			public int compare(Event o1, Event o2) {
+				return o1.start < o2.start ? -1 : o1.start > o2.start ? 1 : 0;
+			}
+		});
+		return events;
+	}
+
+	/**
+	 * @return [ns] from the plan's start until its end (until the last event while it is still executing)
+	 */
+	public synchronized long getMakespan() {
+		long end = _planEnd - _planStart;
+		for (Event event : _events) {
+			end = Math.max(end, event.end);
+		}
+		return end;
+	}
+
+	/**
+	 * The chain of script executions that determined the makespan:
+	 * starts with the script that finished last + continues with the direct dependency that finished last.
+	 *
+	 * @return the script events of the critical path in execution order
+	 */
+	public synchronized List<Event> getCriticalPath() {
+		List<Event> path = new ArrayList<Event>();
+
+		Event current = null;
+		for (Event event : _scriptEvents.values()) {
+			if (current == null || event.end > current.end) {
+				current = event;
+			}
+		}
+
+		while (current != null) {
+			path.add(current);
+
+			Event previous = null;
+			for (Script dependency : _dGraph.getDirectDependencies(current.script)) {
+				Event event = _scriptEvents.get(dependency);
+				if (event != null && (previous == null || event.end > previous.end)) {
+					previous = event;
+				}
+			}
+			current = previous;
+		}
+
+		Collections.reverse(path);
+		return path;
+	}
+
+	/**
+	 * @return node => the periods (category IDLE) between the plan's start + end without a script dispatched to the node,
+	 *         the given nodes first
+	 */
+	public synchronized Map<Node, List<Event>> getIdleGaps() {
+		Map<Node, List<Event>> busy = new LinkedHashMap<Node, List<Event>>();
+		for (Node node : _nodes) {
+			busy.put(node, new ArrayList<Event>());
+		}
+		for (Event event : getEvents()) {
+			if (event.node != null) {
+				if (!busy.containsKey(event.node)) {
+					busy.put(event.node, new ArrayList<Event>());
+				}
+				busy.get(event.node).add(event);
+			}
+		}
+
+		long makespan = getMakespan();
+		Map<Node, List<Event>> gaps = new LinkedHashMap<Node, List<Event>>();
+		for (Map.Entry<Node, List<Event>> entry : busy.entrySet()) {
+			List<Event> executions = entry.getValue();
+			Collections.sort(executions, new Comparator<Event>() {
+				@Override
+				public int compare(Event o1, Event o2) {
+					return o1.dispatched < o2.dispatched ? -1 : o1.dispatched > o2.dispatched ? 1 : 0;
+				}
+			});
+
+			List<Event> nodeGaps = new ArrayList<Event>();
+			long busyUntil = 0;
+			for (Event execution : executions) {
+				if (execution.dispatched > busyUntil) {
+					nodeGaps.add(_idle(entry.getKey(), busyUntil, execution.dispatched));
+				}
+				busyUntil = Math.max(busyUntil, execution.end);
+			}
+			if (makespan > busyUntil) {
+				nodeGaps.add(_idle(entry.getKey(), busyUntil, makespan));
+			}
+			gaps.put(entry.getKey(), nodeGaps);
+		}
+		return gaps;
+	}
+
+	/**
+	 * Writes the trace in the Chrome trace event format:
+	 * process "threads" shows the steps per executing thread (a script from being handed to the scheduler until it finished),
+	 * process "nodes" the dispatched script executions + idle gaps per node, the critical path is flagged in the args.
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void writeChromeTrace(Writer writer) throws IOException {
+		JSONArray traceEvents = new JSONArray();
+		Map<String, Integer> threadIDs = new HashMap<String, Integer>();
+		Map<Node, Integer> nodeIDs = new HashMap<Node, Integer>();
+
+		Map<Event, Boolean> critical = new IdentityHashMap<Event, Boolean>();
+		for (Event event : getCriticalPath()) {
+			critical.put(event, Boolean.TRUE);
+		}
+
+		traceEvents.add(_metadata("process_name", THREADS_PID, 0, "threads"));
+		traceEvents.add(_metadata("process_name", NODES_PID, 0, "nodes"));
+		for (Event event : getEvents()) {
+			Integer tid = threadIDs.get(event.thread);
+			if (tid == null) {
+				threadIDs.put(event.thread, tid = threadIDs.size() + 1);
+				traceEvents.add(_metadata("thread_name", THREADS_PID, tid, event.thread));
+			}
+
+			JSONObject args = new JSONObject();
+			if (event.script != null) {
+				args.put("script", String.valueOf(event.script));
+				args.put("node", event.node.getName());
+				args.put("waitMs", event.getWait() / 1e6);
+				args.put("criticalPath", critical.containsKey(event));
+			}
+			traceEvents.add(_complete(event.name, event.category, THREADS_PID, tid, event.start, event.end, args));
+
+			if (event.node != null) {
+				Integer nodeID = nodeIDs.get(event.node);
+				if (nodeID == null) {
+					nodeIDs.put(event.node, nodeID = nodeIDs.size() + 1);
+					traceEvents.add(_metadata("thread_name", NODES_PID, nodeID, event.node.getName()));
+				}
+				traceEvents.add(_complete(event.name, event.category, NODES_PID, nodeID, event.dispatched, event.end, args));
+			}
+		}
+		for (Map.Entry<Node, List<Event>> entry : getIdleGaps().entrySet()) {
+			Integer nodeID = nodeIDs.get(entry.getKey());
+			if (nodeID == null) { // no script dispatched to the node
+				nodeIDs.put(entry.getKey(), nodeID = nodeIDs.size() + 1);
+				traceEvents.add(_metadata("thread_name", NODES_PID, nodeID, entry.getKey().getName()));
+			}
+			for (Event gap : entry.getValue()) {
+				traceEvents.add(_complete(IDLE, IDLE, NODES_PID, nodeID, gap.start, gap.end, new JSONObject()));
+			}
+		}
+
+		JSONObject trace = new JSONObject();
+		trace.put("traceEvents", traceEvents);
+		trace.put("displayTimeUnit", "ms");
+		trace.writeJSONString(writer);
+		writer.flush();
+	}
+
+	/**
+	 * @return the trace in the Chrome trace event format, see writeChromeTrace()
+	 */
+	public String toChromeTrace() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeChromeTrace(writer);
+		} catch (IOException e) {
+			// StringWriter doesn't throw
+		}
+		return writer.toString();
+	}
+
+
+	/* protected methods */
+	protected void _add(Event event) {
+		_events.add(event);
+	}
+
+	protected static Event _idle(Node node, long start, long end) {
+		return new Event(IDLE, IDLE, null, node, start, start, end, null);
+	}
+
+	/**
+	 * @return a complete event ("X") of the Chrome trace format, times in us
+	 */
+	@SuppressWarnings("unchecked")
+	protected static JSONObject _complete(String name, String category, int pid, int tid, long start, long end, JSONObject args) {
+		JSONObject event = new JSONObject();
+		event.put("name", name);
+		event.put("cat", category);
+		event.put("ph", "X");
+		event.put("pid", pid);
+		event.put("tid", tid);
+		event.put("ts", start / 1000.0);
+		event.put("dur", (end - start) / 1000.0);
+		event.put("args", args);
+		return event;
+	}
+
+	/**
+	 * @return a metadata event ("M") naming a process or thread
+	 */
+	@SuppressWarnings("unchecked")
+	protected static JSONObject _metadata(String type, int pid, int tid, String name) {
+		JSONObject args = new JSONObject();
+		args.put("name", name);
+
+		JSONObject event = new JSONObject();
+		event.put("name", type);
+		event.put("ph", "M");
+		event.put("pid", pid);
+		event.put("tid", tid);
+		event.put("args", args);
+		return event;
+	}
+
+
+	/* protected member */
+	protected static final int THREADS_PID = 1;
+	protected static final int NODES_PID = 2;
+
+	/** nodes that appear in the idle gaps without executions */
+	protected final List<Node> _nodes;
+	protected final List<Event> _events = new ArrayList<Event>();
+	protected final Map<Script, Event> _scriptEvents = new HashMap<Script, Event>();
+	/** script => ID of its ScriptExecution */
+	protected final Map<Script, String> _stepIDs = new HashMap<Script, String>();
+	protected DependencyGraph _dGraph = new DependencyGraph();
+	protected long _planStart = System.nanoTime();
+	protected long _planEnd = _planStart;
+}
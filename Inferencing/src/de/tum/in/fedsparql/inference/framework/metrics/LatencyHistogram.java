@@ -0,0 +1,127 @@
+package de.tum.in.fedsparql.inference.framework.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations [ns] with log-linear buckets:
+ * every power of two is split into SUB_BUCKETS buckets => percentiles are accurate to 1/SUB_BUCKETS (12.5%).
+ *
+ * record() is a few atomic increments without any allocation, it can be called from any thread.
+ */
+public class LatencyHistogram {
+
+	/* constants */
+	protected static final int SUB_BUCKET_BITS = 3;
+	protected static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+
+	/* public methods */
+	/**
+	 * @param value [ns], negative values count as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		_buckets.incrementAndGet(_index(value));
+		_count.incrementAndGet();
+		_sum.addAndGet(value);
+
+		long max = _max.get();
+		while (value > max && !_max.compareAndSet(max, value)) {
+			max = _max.get();
+		}
+	}
+
+	public long getCount() {
+		return _count.get();
+	}
+
+	/**
+	 * @return sum of all recorded values [ns]
+	 */
+	public long getSum() {
+		return _sum.get();
+	}
+
+	/**
+	 * @return mean [ns], 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long count = _count.get();
+		return count > 0 ? (double) _sum.get() / count : 0;
+	}
+
+	/**
+	 * @return largest recorded value [ns]
+	 */
+	public long getMax() {
+		return _max.get();
+	}
+
+	/**
+	 * @param p 0..1
+	 * @return the value [ns] p of the recorded values are less than or equal to (middle of its bucket), 0 if nothing was recorded
+	 */
+	public long getPercentile(double p) {
+		long count = _count.get();
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(p * count));
+		long seen = 0;
+		for (int i = 0; i < _buckets.length(); i++) {
+			seen += _buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(_middle(i), _max.get());
+			}
+		}
+		return _max.get();
+	}
+
+	/**
+	 * overridden toString(): values in ms
+	 */
+	@Override
+	public String toString() {
+		return String.format("count %d, mean %.3fms, p50 %.3fms, p90 %.3fms, p99 %.3fms, max %.3fms",
+				getCount(), getMean() / 1e6, getPercentile(0.5) / 1e6, getPercentile(0.9) / 1e6,
+				getPercentile(0.99) / 1e6, getMax() / 1e6);
+	}
+
+
+	/* protected methods */
+	/**
+	 * values < SUB_BUCKETS get their own bucket, above every power of two gets SUB_BUCKETS buckets
+	 */
+	protected static int _index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * @return the middle of the bucket's value range
+	 */
+	protected static long _middle(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return lower + width / 2;
+	}
+
+
+	/* protected member */
+	protected final AtomicLongArray _buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+	protected final AtomicLong _count = new AtomicLong();
+	protected final AtomicLong _sum = new AtomicLong();
+	protected final AtomicLong _max = new AtomicLong();
+}
@@ -6,9 +6,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.tum.in.fedsparql.inference.framework.Script;
 import de.tum.in.fedsparql.inference.framework.algorithms.TopologicalSorting;
+import de.tum.in.fedsparql.inference.framework.graph.CompactGraph;
 import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
 import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
 import de.tum.in.fedsparql.inference.framework.xceptions.DependencyCycleException;
@@ -56,22 +59,49 @@ public class ExecutionPlan extends de.tum.in.fedsparql.inference.ExecutionPlan {
 	/**
 	 * gets a set of the scripts which were already processed
 	 */
-	public Set<Script> getFinishedScripts() {
+	public synchronized Set<Script> getFinishedScripts() {
 		return new HashSet<Script>(_finishedScripts);
 	}
 
 	/**
-	 * run plan
+	 * run plan on a pool of PlanExecutor.DEFAULT_POOL_SIZE threads
+	 * (getStartStep().execute() still runs it with a Thread per parallel path)
 	 * @throws Exception
 	 */
 	public void execute(Scheduler dispatcher) throws Exception {
-		_startStep.execute(dispatcher);
+		ExecutorService executor = Executors.newFixedThreadPool(PlanExecutor.DEFAULT_POOL_SIZE);
+		try {
+			execute(dispatcher, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	/**
+	 * run plan, every script gets its own virtual thread (cached platform threads before Java 21)
+	 * @throws Exception
+	 */
+	public void executeOnVirtualThreads(Scheduler dispatcher) throws Exception {
+		ExecutorService executor = PlanExecutor.newVirtualThreadExecutor();
+		try {
+			execute(dispatcher, executor);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	/**
+	 * run plan, executing the scripts on the given ExecutorService
+	 * @param dispatcher
+	 * @param executor bounds the count of concurrently executed scripts, isn't shut down afterwards
+	 * @throws Exception
+	 */
+	public void execute(Scheduler dispatcher, ExecutorService executor) throws Exception {
+		new PlanExecutor(this, dispatcher, executor).run();
 	}
 
 	/**
 	 * @return true if all scripts were processed
 	 */
-	public boolean isFinished() {
+	public synchronized boolean isFinished() {
 		return _finishedScripts.size() == _dGraph.size();
 	}
 
@@ -90,13 +120,19 @@ public class ExecutionPlan extends de.tum.in.fedsparql.inference.ExecutionPlan {
 	 * @param script Script that was processed
 	 * @return this for fluent interface
 	 */
-	ExecutionPlan _markFinished(Script script) {
+	synchronized ExecutionPlan _markFinished(Script script) {
 		_finishedScripts.add(script);
 		return this;
 	}
 
 
 	/* protected methods */
+	/**
+	 * Builds the plan in O(V+E):
+	 * every Script gets a ScriptExecution, preceded by a SynchronizationPoint if it has more than one dependency.
+	 * Afterwards every ScriptExecution is linked to the entry steps of its dependents (via a Fork if there are several)
+	 * or to Finish if nothing depends on it.
+	 */
 	protected void _genPlan() throws ExecutionPlanException {
 
 		// check if input is OK
@@ -109,109 +145,68 @@ public class ExecutionPlan extends de.tum.in.fedsparql.inference.ExecutionPlan {
 		if (topologicalSortedSets==null || topologicalSortedSets.size()<=0) {
 			throw new ExecutionPlanException("DependencyGraph must at least contain 1 Script!");
 		}
+		CompactGraph<Script> graph = _dGraph.compile();
 
 
 		// create start step
 		_startStep = _createStart();
 
-		// create initial step after start
-		Set<Script> startScripts = new HashSet<Script>();
-		for (Object script: topologicalSortedSets.remove(0)) {
-			startScripts.add((Script)script);
-		}
-
-		if (startScripts.size() > 1) {
-			// FORK
+		// create the executions in topological order, entry = the step a dependency has to continue with
+		ScriptExecution[] executions = new ScriptExecution[graph.size()];
+		ExecutionStep[] entries = new ExecutionStep[graph.size()];
+		for (Set<Object> scripts: topologicalSortedSets) {
+			for (Object script: scripts) {
+				int v = graph.getID(script);
 
-			Set<ExecutionStep> branches = new HashSet<ExecutionStep>();
-			for (Script script: startScripts) {
-				branches.add(_createScriptExecution(script));
+				executions[v] = _createScriptExecution((Script) script);
+				entries[v] = graph.outDegree(v) > 1 ? _createSynchPoint(executions[v]) : executions[v];
 			}
-
-			_startStep.next = _createFork(branches);
-		} else {
-			// SINGLE EXECUTION
-
-			_startStep.next = _createScriptExecution(startScripts.iterator().next());
 		}
 
-
-		// go through the topological sorting steps + build up execution-plan
-		for (int i=0; i<topologicalSortedSets.size(); i++) {
-			for (Object oScript: topologicalSortedSets.get(i)) {
-				Script script = (Script) oScript;
-
-				ExecutionStep step = _createScriptExecution(script);
-
-				Set<Script> dependencies = _dGraph.getDirectDependencies(script);
-				if (dependencies.size() > 1) {
-					step = _createSynchPoint(step);
-				}
-				for (Script dependency: _dGraph.getDirectDependencies(script)) {
-					_connect(step, _scriptExecutions.get(dependency), topologicalSortedSets.get(i));
+		// link every execution to its dependents
+		Set<ScriptExecution> finalScripts=new HashSet<ScriptExecution>();
+		for (int v=0; v<graph.size(); v++) {
+			for (int i=graph.inBegin(v); i<graph.inEnd(v); i++) {
+				ExecutionStep dependent = entries[graph.inTarget(i)];
+				if (dependent instanceof SynchronizationPoint) {
+					((SynchronizationPoint) dependent).waitFor.add(executions[v]);
 				}
 			}
-		}
-
 
-		// attach finish state
-		Set<ScriptExecution> finalScripts=new HashSet<ScriptExecution>();
-		for (ExecutionStep step: _steps) {
-			if ((step instanceof ScriptExecution) && ((ScriptExecution) step).next==null) {
-				finalScripts.add((ScriptExecution) step);
+			if (graph.inDegree(v) == 0) {
+				// nothing depends on it -> Finish
+				finalScripts.add(executions[v]);
+			} else if (graph.inDegree(v) == 1) {
+				// SINGLE EXECUTION
+				executions[v].next = entries[graph.inTarget(graph.inBegin(v))];
+			} else {
+				// FORK
+				Set<ExecutionStep> branches = new HashSet<ExecutionStep>();
+				for (int i=graph.inBegin(v); i<graph.inEnd(v); i++) {
+					branches.add(entries[graph.inTarget(i)]);
+				}
+				executions[v].next = _createFork(branches);
 			}
 		}
-		_createFinish(finalScripts);
-	}
 
-	protected void _connect(ExecutionStep step, ScriptExecution depSe, Set<Object> curScriptSiblings) throws ExecutionPlanException {
-		if (depSe == null) return;
-
-		// ABORT IF: depSe is already connected to a Script from an older generation!
-		if (!curScriptSiblings.containsAll(_getNextScripts(depSe))) {
-			return;
+		// create initial step after start
+		Set<ExecutionStep> startScripts = new HashSet<ExecutionStep>();
+		for (Object script: topologicalSortedSets.get(0)) {
+			startScripts.add(executions[graph.getID(script)]);
 		}
-
-		/*** connect ***/
-		// add depSe to the SynchronizationPoint if the current step is one
-		if (step instanceof SynchronizationPoint) {
-			((SynchronizationPoint) step).waitFor.add(depSe);
+		if (startScripts.size() > 1) {
+			// FORK
+			_startStep.next = _createFork(startScripts);
+		} else {
+			// SINGLE EXECUTION
+			_startStep.next = startScripts.iterator().next();
 		}
 
-		// link the step to the dependency
-		if (depSe.next == null) {
-
-			// next --> SINGLE EXECUTION
-			depSe.next = step;
-
-		} else if (depSe.next instanceof ScriptExecution) {
-
-			// next --> FORK
-			Set<ExecutionStep> branches = new HashSet<ExecutionStep>();
-			branches.add(depSe.next);
-			branches.add(step);
-
-			depSe.next = _createFork(branches);
-
-		} else if (depSe.next instanceof Fork) {
 
-			// next +-> FORK
-			Fork f = (Fork) depSe.next;
-			f.branches.add(step);
-
-		} else if (depSe.next instanceof SynchronizationPoint) {
-
-			// next --> FORK
-			Set<ExecutionStep> branches = new HashSet<ExecutionStep>();
-			branches.add(depSe.next);
-			branches.add(step);
-
-			depSe.next = _createFork(branches);
-
-		} else {
-			throw new ExecutionPlanException("Reached a '"+depSe.next.getClass().getSimpleName()+"' while trying to connect two steps!");
-		}
+		// attach finish state
+		_createFinish(finalScripts);
 	}
+
 	protected Start _createStart() {
 		Start start = new Start(_steps.size());
 		_steps.add(start);
@@ -250,21 +245,6 @@ public class ExecutionPlan extends de.tum.in.fedsparql.inference.ExecutionPlan {
 
 		return synchPoint;
 	}
-	protected Set<Script> _getNextScripts(ExecutionStep step) {
-		Set<Script> nextScripts = new HashSet<Script>();
-
-		Set<ExecutionStep> nextSteps = _getNextSteps(step);
-		for (ExecutionStep nextStep: nextSteps) {
-			if (nextStep instanceof ScriptExecution) {
-				nextScripts.add(((ScriptExecution) nextStep).script);
-			} else {
-				nextScripts.addAll(_getNextScripts(nextStep));
-			}
-		}
-
-
-		return nextScripts;
-	}
 	protected Set<ExecutionStep> _getNextSteps(ExecutionStep step) {
 		Set<ExecutionStep> next=new HashSet<ExecutionStep>();
 
@@ -1,5 +1,8 @@
 package de.tum.in.fedsparql.inference.framework.plan;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
 
 /**
@@ -7,6 +10,11 @@ import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
  */
 public abstract class ExecutionStep {
 
+	/* constants */
+	/** trace of the executed steps, level FINE */
+	static final Logger LOGGER = Logger.getLogger(ExecutionStep.class.getPackage().getName());
+
+
 	/* constructors */
 	/**
 	 * ExecutionStep Constructors must at least take the Step's ID !
@@ -32,6 +40,23 @@ public abstract class ExecutionStep {
 	 * @throws Exception
 	 */
 	abstract void execute(Scheduler scheduler) throws Exception;
+	/**
+	 * ExecutionStep's counterpart of execute() for a PlanExecutor: must not block,
+	 * blocking work has to be submitted to the PlanExecutor.
+	 * @param executor
+	 * @throws Exception
+	 */
+	abstract void process(PlanExecutor executor) throws Exception;
+
+
+	/**
+	 * logs the message on level FINE, builds it only if FINE is enabled
+	 */
+	static void _trace(Object message, String suffix) {
+		if (LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine(suffix != null ? message + suffix : String.valueOf(message));
+		}
+	}
 
 
 	/* overridden methods */
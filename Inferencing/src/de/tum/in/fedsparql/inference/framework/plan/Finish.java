@@ -25,12 +25,20 @@ public class Finish extends SynchronizationPoint {
 	 */
 	@Override
 	void execute(Scheduler scheduler) throws Exception {
-		super.execute(scheduler);
-
-		if (_doneSteps.containsAll(this.waitFor)) {
-			System.out.println("FINISH");
+		if (_arrive()) {
+			LOGGER.fine("FINISH");
 			Thread.currentThread().interrupt();
 		}
 	}
+	/**
+	 * the last arriving script terminates the execution
+	 */
+	@Override
+	void process(PlanExecutor executor) throws Exception {
+		if (executor.arrive(this)) {
+			LOGGER.fine("FINISH");
+			executor.finish();
+		}
+	}
 
 }
@@ -37,7 +37,7 @@ public class Fork extends ExecutionStep {
 	 */
 	@Override
 	void execute(Scheduler scheduler) throws Exception {
-		System.out.println(this);
+		_trace(this, null);
 
 		/*
 		 *  continue first branch in current thread,
@@ -62,6 +62,21 @@ public class Fork extends ExecutionStep {
 		}
 	}
 
+	/**
+	 * process all branches, the ScriptExecutions among them run in parallel on the executor
+	 */
+	@Override
+	void process(PlanExecutor executor) throws Exception {
+		_trace(this, null);
+		executor.forked(this);
+
+		// announce all branches before the first one can arrive at the scheduler
+		executor.announce(branches);
+		for (ExecutionStep step : branches) {
+			step.process(executor);
+		}
+	}
+
 	/**
 	 * overridden toString()
 	 */
@@ -0,0 +1,275 @@
+package de.tum.in.fedsparql.inference.framework.plan;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.tum.in.fedsparql.inference.framework.metrics.ExecutionListener;
+import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
+
+/**
+ * Executes an ExecutionPlan on a (bounded) ExecutorService instead of a Thread per parallel path.
+ *
+ * Only ScriptExecutions become tasks of the ExecutorService, Forks and SynchronizationPoints are processed by the task
+ * that reaches them. Every SynchronizationPoint gets a counter of its outstanding dependencies for this run,
+ * the arrival counting it down to 0 continues the execution => no thread ever waits for another path.
+ */
+public class PlanExecutor {
+
+	/* constants */
+	/** pool size ExecutionPlan.execute(Scheduler) uses (scripts mostly block on scheduling + dispatching) */
+	public static final int DEFAULT_POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+
+	/* constructors */
+	/**
+	 * @param plan the plan to execute
+	 * @param scheduler the Scheduler to use for the ScriptExecutions
+	 * @param executor runs the ScriptExecutions, isn't shut down by the PlanExecutor
+	 */
+	public PlanExecutor(ExecutionPlan plan, Scheduler scheduler, ExecutorService executor) {
+		_plan = plan;
+		_scheduler = scheduler;
+		_executor = executor;
+		_listeners = scheduler.getExecutionListeners();
+
+		for (ExecutionStep step: plan.getSteps()) {
+			if (step instanceof SynchronizationPoint) {
+				_pending.put(step, new AtomicInteger(((SynchronizationPoint) step).waitFor.size()));
+				_firstArrival.put(step, new AtomicLong());
+			}
+		}
+	}
+
+
+	/* public static methods */
+	/**
+	 * Creates an ExecutorService starting a virtual thread per script (Java 21+).
+	 * Script executions mostly block (scheduling window, dispatching), which only parks a virtual thread.
+	 * Falls back to a cached pool of platform threads on older JVMs.
+	 *
+	 * @return ExecutorService the caller has to shut down
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (Exception e) {
+			// no virtual threads on this JVM
+			return Executors.newCachedThreadPool();
+		}
+	}
+	/**
+	 * @return true if newVirtualThreadExecutor() really uses virtual threads
+	 */
+	public static boolean supportsVirtualThreads() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+
+	/* public methods */
+	/**
+	 * Executes the plan + blocks until Finish was reached or a step failed.
+	 * If a step failed, aborts the scheduler + waits for the running tasks (no task outlives run()).
+	 * Disposes the scheduler afterwards.
+	 * Notifies the scheduler's ExecutionListeners.
+	 *
+	 * @throws Exception the first exception a step threw
+	 */
+	public void run() throws Exception {
+		ExecutionStep.LOGGER.fine("START");
+		for (ExecutionListener listener: _listeners) {
+			listener.planStarted(_plan);
+		}
+		long start = System.nanoTime();
+
+		try {
+			_plan.getStartStep().process(this);
+			_done.await();
+		} catch (Exception e) {
+			// interrupted or a step failed on this thread
+			fail(e);
+		} finally {
+			if (_failure.get() != null) {
+				_scheduler.abort();
+				_awaitTasks();
+			}
+
+			_scheduler.dispose();
+
+			long makespan = System.nanoTime() - start;
+			for (ExecutionListener listener: _listeners) {
+				listener.planFinished(_plan, makespan, _failure.get());
+			}
+		}
+
+		if (_failure.get() != null) {
+			throw _failure.get();
+		}
+	}
+
+
+	/* package-wide methods */
+	/**
+	 * @return the Scheduler ScriptExecutions have to use
+	 */
+	Scheduler getScheduler() {
+		return _scheduler;
+	}
+	/**
+	 * Announces next to the Scheduler if it is a ScriptExecution + processes it.
+	 */
+	void proceed(ExecutionStep next) throws Exception {
+		if (next instanceof ScriptExecution) {
+			_scheduler.announceExecutions(1);
+		}
+		next.process(this);
+	}
+	/**
+	 * Announces the ScriptExecutions among the steps to the Scheduler at once.
+	 */
+	void announce(Collection<ExecutionStep> steps) {
+		int count = 0;
+		for (ExecutionStep step: steps) {
+			if (step instanceof ScriptExecution) count++;
+		}
+		if (count > 0) {
+			_scheduler.announceExecutions(count);
+		}
+	}
+	/**
+	 * Runs the task on the ExecutorService (nothing happens anymore once a step failed).
+	 */
+	void submit(final StepTask task) {
+		if (_failure.get() != null) return;
+
+		_running.incrementAndGet();
+		try {
+			_executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (_failure.get() == null) {
+							task.run();
+						}
+					} catch (Exception e) {
+						fail(e);
+					} finally {
+						_taskFinished();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			_taskFinished();
+			fail(e);
+		}
+	}
+	/**
+	 * Counts down the outstanding dependencies of a SynchronizationPoint.
+	 *
+	 * @return true for exactly one arrival: the last one
+	 */
+	boolean arrive(SynchronizationPoint synchPoint) {
+		if (_listeners.isEmpty()) {
+			return _pending.get(synchPoint).decrementAndGet() == 0;
+		}
+
+		long now = System.nanoTime();
+		AtomicLong firstArrival = _firstArrival.get(synchPoint);
+		firstArrival.compareAndSet(0, now);
+		if (_pending.get(synchPoint).decrementAndGet() != 0) {
+			return false;
+		}
+		for (ExecutionListener listener: _listeners) {
+			listener.synchronizationCompleted(synchPoint, now - firstArrival.get());
+		}
+		return true;
+	}
+	/**
+	 * Notifies the listeners about the fork's fan-out.
+	 */
+	void forked(Fork fork) {
+		for (ExecutionListener listener: _listeners) {
+			listener.forked(fork, fork.branches.size());
+		}
+	}
+	/**
+	 * the execution reached Finish
+	 */
+	void finish() {
+		_done.countDown();
+	}
+	/**
+	 * a step failed => stop + let run() throw the exception
+	 */
+	void fail(Exception e) {
+		_failure.compareAndSet(null, e);
+		_done.countDown();
+	}
+
+
+	/* protected methods */
+	protected void _taskFinished() {
+		if (_running.decrementAndGet() == 0) {
+			synchronized (_running) {
+				_running.notifyAll();
+			}
+		}
+	}
+	/**
+	 * waits until all submitted tasks returned (after a failure no new tasks are submitted)
+	 */
+	protected void _awaitTasks() {
+		boolean interrupted = false;
+		synchronized (_running) {
+			while (_running.get() > 0) {
+				try {
+					_running.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	/* helper classes */
+	/**
+	 * work a ScriptExecution hands to the ExecutorService
+	 */
+	static interface StepTask {
+		void run() throws Exception;
+	}
+
+
+	/* protected member */
+	protected final ExecutionPlan _plan;
+	protected final Scheduler _scheduler;
+	protected final ExecutorService _executor;
+	protected final List<ExecutionListener> _listeners;
+	/** SynchronizationPoint => count of dependencies that didn't arrive yet */
+	protected final Map<ExecutionStep,AtomicInteger> _pending = new IdentityHashMap<ExecutionStep,AtomicInteger>();
+	/** SynchronizationPoint => System.nanoTime() of its first arrival, 0 before */
+	protected final Map<ExecutionStep,AtomicLong> _firstArrival = new IdentityHashMap<ExecutionStep,AtomicLong>();
+	protected final CountDownLatch _done = new CountDownLatch(1);
+	protected final AtomicReference<Exception> _failure = new AtomicReference<Exception>();
+	/** count of submitted tasks that didn't return yet */
+	protected final AtomicInteger _running = new AtomicInteger();
+}
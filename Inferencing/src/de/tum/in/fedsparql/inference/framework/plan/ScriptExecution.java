@@ -51,15 +51,26 @@ public class ScriptExecution extends ExecutionStep {
 	 */
 	@Override
 	void execute(Scheduler scheduler) throws Exception {
-		System.out.println(this);
-		if (Thread.currentThread() instanceof ExecutionThread) {
-			((ExecutionThread) Thread.currentThread()).executionStep = this;
-		}
+		_trace(this, null);
 
-		scheduler.executeInternal(this.script, this.dependencyGraph);
-		_plan._markFinished(this.script);
+		_executeScript(scheduler);
 		this.next.execute(scheduler);
 	}
+	/**
+	 * Execute Script on the executor, the task continues with the next step
+	 */
+	@Override
+	void process(final PlanExecutor executor) {
+		executor.submit(new PlanExecutor.StepTask() {
+			@Override
+			public void run() throws Exception {
+				_trace(ScriptExecution.this, null);
+
+				_executeScript(executor.getScheduler());
+				executor.proceed(ScriptExecution.this.next);
+			}
+		});
+	}
 
 	/**
 	 * overridden toString()
@@ -72,6 +83,13 @@ public class ScriptExecution extends ExecutionStep {
 	}
 
 
+	/* protected methods */
+	protected void _executeScript(Scheduler scheduler) throws Exception {
+		scheduler.executeInternal(this.script, this.dependencyGraph);
+		_plan._markFinished(this.script);
+	}
+
+
 	/* protected member */
 	ExecutionPlan _plan=null;
 }
@@ -32,7 +32,7 @@ public class Start extends ExecutionStep {
 	 */
 	@Override
 	public void execute(Scheduler scheduler) throws Exception {
-		System.out.println("START");
+		LOGGER.fine("START");
 
 		// start execution in new thread
 		ExecutionThread thread = new ExecutionThread(this.next, scheduler);
@@ -45,6 +45,14 @@ public class Start extends ExecutionStep {
 		}
 	}
 
+	/**
+	 * continue with the next step
+	 */
+	@Override
+	void process(PlanExecutor executor) throws Exception {
+		executor.proceed(this.next);
+	}
+
 	/**
 	 * overridden toString()
 	 */
@@ -2,14 +2,15 @@ package de.tum.in.fedsparql.inference.framework.plan;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.tum.in.fedsparql.inference.framework.plandispatcher.Scheduler;
 
 
 /**
  * Execution Synchronization Point.
- * Merges multiple parallel execution paths.
- * Terminates Threads of dead paths.
+ * Merges multiple parallel execution paths:
+ * the last arriving path continues, the Threads of the others terminate.
  */
 public class SynchronizationPoint extends ExecutionStep {
 
@@ -48,28 +49,27 @@ public class SynchronizationPoint extends ExecutionStep {
 	 */
 	@Override
 	void execute(Scheduler scheduler) throws Exception {
-		System.out.println(this);
-
-		if (Thread.currentThread() instanceof ExecutionThread) {
-			ExecutionThread t = (ExecutionThread) Thread.currentThread();
-
-
-			if (t.executionStep != null) {
-				_doneSteps.add(t.executionStep);
+		if (_arrive()) {
+			// continue execution
+			_trace(this, " SYNC continue");
+			if (this.next != null) {
+				this.next.execute(scheduler);
 			}
+		} else {
+			// terminate thread, wait until all other dependencies are completed
+			_trace(getID(), " SYNC wait");
+		}
+	}
 
-			if (_doneSteps.containsAll(this.waitFor)) {
-				// continue execution
-				System.out.println("SYNC continue");
-				if (this.next != null) {
-					this.next.execute(scheduler);
-				} else {
-					//Thread.currentThread().interrupt();
-				}
-			} else {
-				// terminate thread, wait until all other dependencies are completed
-				System.out.println("SYNC wait");
-				//Thread.currentThread().interrupt();
+	/**
+	 * the last arriving dependency continues the execution
+	 */
+	@Override
+	void process(PlanExecutor executor) throws Exception {
+		if (executor.arrive(this)) {
+			_trace(this, " continue");
+			if (this.next != null) {
+				executor.proceed(this.next);
 			}
 		}
 	}
@@ -89,6 +89,23 @@ public class SynchronizationPoint extends ExecutionStep {
 	}
 
 
+	/* protected methods */
+	/**
+	 * Counts an arriving path in O(1).
+	 * The last of the waitFor.size() arrivals resets the counter => the step can be executed again.
+	 *
+	 * @return true for exactly one arrival: the last one
+	 */
+	protected boolean _arrive() {
+		if (_arrived.incrementAndGet() < this.waitFor.size()) {
+			return false;
+		}
+		_arrived.set(0);
+		return true;
+	}
+
+
 	/* protected member */
-	protected Set<ExecutionStep> _doneSteps=new HashSet<ExecutionStep>();
+	/** count of paths that arrived since the last continuation */
+	protected final AtomicInteger _arrived=new AtomicInteger(0);
 }
@@ -0,0 +1,284 @@
+package de.tum.in.fedsparql.inference.framework.plandispatcher;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.framework.algorithms.TopologicalSorting;
+import de.tum.in.fedsparql.inference.framework.graph.CompactGraph;
+import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.xceptions.DependencyCycleException;
+import de.tum.in.fedsparql.inference.io.Dispatcher;
+import de.tum.in.fedsparql.inference.io.IO;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Monitoring.Load;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * HEFT-like list scheduler (Topcuoglu et al., "Heterogeneous Earliest-Finish-Time"):
+ * - the scripts of a window start in the order of their upward rank = estimated cost of the script
+ *   + the most expensive path (script costs + data transfers) from it to the end of the DependencyGraph
+ * - every script goes to the node with the earliest estimated finish time = work already assigned to the node
+ *   + transferring the script's databases the node doesn't host + executing the script at the node's speed
+ *
+ * Costs are abstract units (see getScriptCost() / getTransferCost()), the work assigned to a node
+ * is released as soon as its script finished.
+ */
+public class CriticalPathScheduler extends WindowedScheduler {
+
+	private static final Logger LOGGER = Logger.getLogger(CriticalPathScheduler.class.getName());
+
+	public CriticalPathScheduler(DependencyGraph collection, IO io,
+			Monitoring monitoring, Dispatcher dispatcher) {
+		super(collection, io, monitoring, dispatcher);
+	}
+
+	/** cost of every script execution */
+	protected double scriptBaseCost = 1;
+	/** cost per triple of a script's input databases */
+	protected double costPerTriple = 0.001;
+	/** cost per triple of a database that has to be transferred to / from another node */
+	protected double transferCostPerTriple = 0.002;
+
+	/** script => upward rank (null until the first window after dispose()) */
+	private Map<Script, Double> ranks = null;
+	/** node => estimated work assigned to it that didn't finish yet */
+	private Map<Node, Double> pendingWork = new HashMap<Node, Double>();
+	/** script => node + work it was assigned */
+	private Map<Script, Assignment> assignments = new HashMap<Script, Assignment>();
+	private Lock lock = new ReentrantLock();
+
+	private static class Assignment {
+		public final Node node;
+		public final double work;
+
+		public Assignment(Node node, double work) {
+			this.node = node;
+			this.work = work;
+		}
+	}
+
+	/**
+	 * @return the script's upward rank: its cost + the most expensive path to a script nothing depends on
+	 */
+	public double getUpwardRank(Script script) {
+		lock.lock();
+		try {
+			if (ranks == null) {
+				ranks = computeUpwardRanks();
+			}
+			Double rank = ranks.get(script);
+			return rank != null ? rank : getScriptCost(script);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return estimated work assigned to the node that didn't finish yet
+	 */
+	public double getPendingWork(Node node) {
+		lock.lock();
+		try {
+			Double work = pendingWork.get(node);
+			return work != null ? work : 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void setScriptBaseCost(double scriptBaseCost) {
+		this.scriptBaseCost = scriptBaseCost;
+	}
+
+	public void setCostPerTriple(double costPerTriple) {
+		this.costPerTriple = costPerTriple;
+	}
+
+	public void setTransferCostPerTriple(double transferCostPerTriple) {
+		this.transferCostPerTriple = transferCostPerTriple;
+	}
+
+	/**
+	 * releases the script's work from its node once it finished
+	 */
+	@Override
+	public void executeInternal(Script script, DependencyGraph collection) throws Exception {
+		try {
+			super.executeInternal(script, collection);
+		} finally {
+			lock.lock();
+			try {
+				Assignment assignment = assignments.remove(script);
+				if (assignment != null) {
+					pendingWork.put(assignment.node, pendingWork.get(assignment.node) - assignment.work);
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * forgets the upward ranks => the next plan execution ranks the scripts of the DependencyGraph as it is then
+	 */
+	@Override
+	public void dispose() {
+		lock.lock();
+		try {
+			ranks = null;
+		} finally {
+			lock.unlock();
+		}
+		super.dispose();
+	}
+
+	@Override
+	protected void scheduleWindow(Window window) {
+		ThreadInfo[] threads = window.threads;
+
+		// highest upward rank first
+		double[] scriptRanks = new double[threads.length];
+		for (int i = 0; i < threads.length; i++) {
+			scriptRanks[i] = getUpwardRank(threads[i].script);
+		}
+		int[] order = sortDescending(scriptRanks);
+
+		// one snapshot of the nodes' speeds for the whole window
+		List<Node> nodes = io.getNodes();
+		double[] speeds = new double[nodes.size()];
+		for (int n = 0; n < speeds.length; n++) {
+			speeds[n] = getNodeSpeed(nodes.get(n), getLoad(nodes.get(n)));
+		}
+
+		for (int i : order) {
+			ThreadInfo threadInfo = threads[i];
+			double cost = getScriptCost(threadInfo.script);
+
+			// node with the earliest finish time
+			int best = -1;
+			double bestWork = 0;
+			double bestFinish = Double.MAX_VALUE;
+			for (int n = 0; n < speeds.length; n++) {
+				double work = getTransferCost(threadInfo.script, nodes.get(n)) + cost / speeds[n];
+				double finish = getPendingWork(nodes.get(n)) + work;
+				if (finish < bestFinish) {
+					best = n;
+					bestWork = work;
+					bestFinish = finish;
+				}
+			}
+
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("SCHEDULER: script " + threadInfo.script + " (rank " + scriptRanks[i] + "): estimated finish " + bestFinish);
+			}
+
+			if (best < 0) {
+				//start execution without specifying a node
+				threadInfo.startExecution(null);
+			} else {
+				lock.lock();
+				try {
+					Node node = nodes.get(best);
+					pendingWork.put(node, getPendingWork(node) + bestWork);
+					assignments.put(threadInfo.script, new Assignment(node, bestWork));
+				} finally {
+					lock.unlock();
+				}
+				threadInfo.startExecution(nodes.get(best));
+			}
+		}
+	}
+
+	/**
+	 * @return estimated cost of executing the script on a node of speed 1
+	 */
+	protected double getScriptCost(Script script) {
+		return scriptBaseCost + costPerTriple * getSize(script.inputDatabases);
+	}
+
+	/**
+	 * @return estimated cost of transferring the script's databases the node doesn't host
+	 *         (databases without known host don't cost anything)
+	 */
+	protected double getTransferCost(Script script, Node node) {
+		long triples = 0;
+		for (DatabaseID databaseID : script.inputDatabases) {
+			triples += getRemoteSize(databaseID, node);
+		}
+		for (DatabaseID databaseID : script.outputDatabases) {
+			triples += getRemoteSize(databaseID, node);
+		}
+		return transferCostPerTriple * triples;
+	}
+
+	/**
+	 * @return estimated cost of passing the data `script` writes for `dependent` between two nodes
+	 */
+	protected double getCommunicationCost(Script script, Script dependent) {
+		long triples = 0;
+		for (DatabaseID databaseID : script.outputDatabases) {
+			if (dependent.inputDatabases.contains(databaseID)) {
+				triples += getSize(databaseID);
+			}
+		}
+		return transferCostPerTriple * triples;
+	}
+
+	/**
+	 * @return relative speed of the node (0.1..1)
+	 */
+	protected double getNodeSpeed(Node node, Load load) {
+		return Math.max(0.1, 1 - load.cpu);
+	}
+
+	/**
+	 * Processes the scripts in reverse topological order:
+	 * rank(s) = cost(s) + max over the dependents d of (communication(s, d) + rank(d)).
+	 * Falls back to the plain script costs if the DependencyGraph contains cycles.
+	 */
+	protected Map<Script, Double> computeUpwardRanks() {
+		Map<Script, Double> ranks = new HashMap<Script, Double>();
+
+		List<Set<Object>> steps;
+		try {
+			steps = new TopologicalSorting(collection).getSteps();
+		} catch (DependencyCycleException e) {
+			for (Script script : collection.getScripts()) {
+				ranks.put(script, getScriptCost(script));
+			}
+			return ranks;
+		}
+
+		CompactGraph<Script> graph = collection.compile();
+		for (int s = steps.size() - 1; s >= 0; s--) {
+			for (Object vertex : steps.get(s)) {
+				Script script = (Script) vertex;
+				int v = graph.getID(script);
+
+				double longestPath = 0;
+				for (int i = graph.inBegin(v); i < graph.inEnd(v); i++) {
+					Script dependent = graph.getVertex(graph.inTarget(i));
+					longestPath = Math.max(longestPath, getCommunicationCost(script, dependent) + ranks.get(dependent));
+				}
+				ranks.put(script, getScriptCost(script) + longestPath);
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * @return size of the database if it is hosted by another node than the given one, 0 otherwise
+	 */
+	protected long getRemoteSize(DatabaseID databaseID, Node node) {
+		Node host = io.getNodeForDatabase(databaseID.getName());
+		return host != null && !host.equals(node) ? getSize(databaseID) : 0;
+	}
+}
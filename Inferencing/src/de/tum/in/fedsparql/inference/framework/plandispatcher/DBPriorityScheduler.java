@@ -1,17 +1,22 @@
 package de.tum.in.fedsparql.inference.framework.plandispatcher;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.tum.in.fedsparql.inference.framework.DatabaseID;
 import de.tum.in.fedsparql.inference.framework.Script;
 import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
-import de.tum.in.fedsparql.inference.io.Database;
 import de.tum.in.fedsparql.inference.io.Dispatcher;
 import de.tum.in.fedsparql.inference.io.IO;
 import de.tum.in.fedsparql.inference.io.Monitoring;
 import de.tum.in.fedsparql.inference.io.Monitoring.Load;
 import de.tum.in.fedsparql.inference.io.Node;
 
+/**
+ * Prefers the nodes hosting most of a script's input + output data (by size), then the less loaded ones.
+ */
 public class DBPriorityScheduler extends PriorityScheduler {
 
 	public DBPriorityScheduler(DependencyGraph collection, IO io,
@@ -21,31 +26,61 @@ public class DBPriorityScheduler extends PriorityScheduler {
 	}
 
 	@Override
-	protected double getNodePriority(Script script, Node node) {
-		Load load = monitoring.monitor(node);
-		List<Database> databases = io.getDatabasesForNode(node);
-
-		int hostedInputDatabases = 0;
-		int hostedOutputDatabases = 0;
-		for (DatabaseID databaseID : script.inputDatabases) {
-			if (dbListContains(databaseID, databases))
-				hostedInputDatabases++;
-		}
-		for (DatabaseID database : script.outputDatabases) {
-			if (dbListContains(database, databases))
-				hostedOutputDatabases++;
+	protected void scheduleWindow(Window window) {
+		// database sizes change between windows
+		localities.clear();
+		super.scheduleWindow(window);
+	}
+
+	@Override
+	protected double getNodePriority(Script script, Node node, Load load) {
+		return (1 - load.cpu) * 50 + (1 - load.io) * 50 + getLocality(script, node) * 200;
+	}
+
+	/**
+	 * @return share of the script's input + output data hosted by the node (0..1)
+	 */
+	protected double getLocality(Script script, Node node) {
+		Map<Node, Double> locality = localities.get(script);
+		if (locality == null) {
+			locality = computeLocality(script);
+			localities.put(script, locality);
 		}
 
-		return (1 - load.cpu) * 50 + (1 - load.io) * 50 + hostedInputDatabases * 100 + hostedOutputDatabases * 100;
+		Double share = locality.get(node);
+		return share != null ? share : 0;
 	}
-	protected boolean dbListContains(DatabaseID dbID, List<Database> list) {
-		for (Database db: list) {
-			if (db.getName()!=null ? db.getName().equals(dbID) : dbID==null) {
-				return true;
+
+	/**
+	 * Looks up the host of every input + output database in the IO's locality index.
+	 * Every database weighs its size + 1 => empty or announced databases count, too.
+	 *
+	 * @return node => share of the script's data it hosts
+	 */
+	protected Map<Node, Double> computeLocality(Script script) {
+		Map<Node, Long> hosted = new HashMap<Node, Long>();
+		long total = 0;
+
+		List<DatabaseID> databaseIDs = new ArrayList<DatabaseID>(script.inputDatabases);
+		databaseIDs.addAll(script.outputDatabases);
+		for (DatabaseID databaseID : databaseIDs) {
+			long weight = getSize(databaseID) + 1;
+			total += weight;
+
+			Node host = io.getNodeForDatabase(databaseID.getName());
+			if (host != null) {
+				Long sum = hosted.get(host);
+				hosted.put(host, (sum != null ? sum : 0) + weight);
 			}
 		}
 
-		return false;
+		Map<Node, Double> locality = new HashMap<Node, Double>();
+		for (Map.Entry<Node, Long> entry : hosted.entrySet()) {
+			locality.put(entry.getKey(), (double) entry.getValue() / total);
+		}
+		return locality;
 	}
 
+	/** script => its locality, valid for the current window */
+	protected Map<Script, Map<Node, Double>> localities = new HashMap<Script, Map<Node, Double>>();
 }
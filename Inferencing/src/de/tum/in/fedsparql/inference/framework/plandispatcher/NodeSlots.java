@@ -0,0 +1,383 @@
+package de.tum.in.fedsparql.inference.framework.plandispatcher;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.tum.in.fedsparql.inference.framework.Script;
+import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Node;
+
+/**
+ * Execution slots per Node: a node executes at most getSlots(node) scripts at once,
+ * further executions wait in the node's FIFO queue.
+ *
+ * The slots are either configured per node or derived from the nodes' loads (fromMonitoring()).
+ * Queue depth, running executions + the time-weighted slot utilisation are exposed for tuning the capacities.
+ *
+ * With a StealPolicy, a node with free slots and an empty queue steals waiting executions from other nodes' queues
+ * if their expected wait there outweighs the policy's penalty for moving them.
+ */
+public class NodeSlots {
+
+	/**
+	 * A granted or waiting execution.
+	 */
+	public class Ticket {
+		/**
+		 * @return the node this execution holds a slot of / waits for, changes if the execution got stolen
+		 */
+		public Node getNode() {
+			lock.lock();
+			try {
+				return node;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * @return the script to execute, null if unknown
+		 */
+		public Script getScript() {
+			return script;
+		}
+
+		private Node node;
+		private final Script script;
+		private boolean granted = false;
+		private final Condition grantedCondition = lock.newCondition();
+
+		private Ticket(Node node, Script script) {
+			this.node = node;
+			this.script = script;
+		}
+	}
+
+	/**
+	 * Decides whether waiting executions may move to another node.
+	 */
+	public static interface StealPolicy {
+		/**
+		 * @return cost of executing the script on `to` instead of `from`, in script executions:
+		 *         an execution gets stolen only if more executions are ahead of it per slot of `from`
+		 */
+		double getStealPenalty(Script script, Node from, Node to);
+	}
+
+	/**
+	 * @param defaultSlots slots of every node without configured slots, at least 1
+	 */
+	public NodeSlots(int defaultSlots) {
+		checkSlots(defaultSlots);
+		this.defaultSlots = defaultSlots;
+		this.created = System.nanoTime();
+	}
+
+	/**
+	 * Derives the slots from the nodes' current cpu load: maxSlots * (1 - cpu), at least 1 per node.
+	 */
+	public static NodeSlots fromMonitoring(List<Node> nodes, Monitoring monitoring, int maxSlots) {
+		NodeSlots slots = new NodeSlots(maxSlots);
+		for (Node node : nodes) {
+			slots.setSlots(node, Math.max(1, (int) Math.round(maxSlots * (1 - monitoring.monitor(node).cpu))));
+		}
+		return slots;
+	}
+
+	/**
+	 * @param slots at least 1
+	 */
+	public void setSlots(Node node, int slots) {
+		checkSlots(slots);
+		lock.lock();
+		try {
+			NodeState state = getState(node);
+			state.account();
+			state.slots = slots;
+			grantWaiting(state);
+			balance();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Enables work stealing between the nodes' queues.
+	 * @param policy null: executions stay in the queue of the node they were assigned to
+	 */
+	public void setStealPolicy(StealPolicy policy) {
+		lock.lock();
+		try {
+			this.stealPolicy = policy;
+			balance();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getSlots(Node node) {
+		lock.lock();
+		try {
+			return getState(node).slots;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the node has a free slot (FIFO) + occupies it.
+	 *
+	 * @return the ticket to release() after the execution
+	 * @throws InterruptedException the waiting execution got removed from the queue
+	 */
+	public Ticket acquire(Node node) throws InterruptedException {
+		return acquire(node, null);
+	}
+
+	/**
+	 * Waits until the node - or the node that stole the execution - has a free slot (FIFO) + occupies it.
+	 *
+	 * @param script passed to the StealPolicy, may be null
+	 * @return the ticket to release() after the execution, execute on its getNode()
+	 * @throws InterruptedException the waiting execution got removed from the queue
+	 */
+	public Ticket acquire(Node node, Script script) throws InterruptedException {
+		lock.lock();
+		try {
+			Ticket ticket = new Ticket(node, script);
+			NodeState state = getState(node);
+			state.queue.add(ticket);
+			grantWaiting(state);
+			balance();
+
+			try {
+				while (!ticket.granted) {
+					ticket.grantedCondition.await();
+				}
+			} catch (InterruptedException e) {
+				if (!ticket.granted) {
+					getState(ticket.node).queue.remove(ticket);
+					throw e;
+				}
+				// got the slot anyway => keep the interrupt for the caller
+				Thread.currentThread().interrupt();
+			}
+			return ticket;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Frees the ticket's slot + grants it to the next waiting execution of the node.
+	 */
+	public void release(Ticket ticket) {
+		lock.lock();
+		try {
+			NodeState state = getState(ticket.node);
+			state.account();
+			state.running--;
+			grantWaiting(state);
+			balance();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return count of executions waiting for a slot of the node
+	 */
+	public int getQueueDepth(Node node) {
+		lock.lock();
+		try {
+			return getState(node).queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return count of executions currently holding a slot of the node
+	 */
+	public int getRunning(Node node) {
+		lock.lock();
+		try {
+			return getState(node).running;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return count of executions that got stolen from another node's queue
+	 */
+	public int getSteals() {
+		lock.lock();
+		try {
+			return steals;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return (running + waiting executions) / slots of the node
+	 */
+	public double getLoad(Node node) {
+		lock.lock();
+		try {
+			NodeState state = getState(node);
+			return (double) (state.running + state.queue.size()) / state.slots;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return share of the node's slots that were occupied since this NodeSlots was created (0..1)
+	 */
+	public double getUtilisation(Node node) {
+		lock.lock();
+		try {
+			NodeState state = getState(node);
+			state.account();
+			long elapsed = System.nanoTime() - created;
+			return elapsed > 0 && state.slots > 0 ? state.busySlotNanos / ((double) elapsed * state.slots) : 0;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		lock.lock();
+		try {
+			String str = "";
+			for (Map.Entry<Node, NodeState> entry : states.entrySet()) {
+				NodeState state = entry.getValue();
+				str += entry.getKey().getName() + ": " + state.running + "/" + state.slots + " running, "
+						+ state.queue.size() + " queued, utilisation " + getUtilisation(entry.getKey()) + "\n";
+			}
+			return str;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * state of a single node, only accessed while holding the lock
+	 */
+	private class NodeState {
+		int slots = defaultSlots;
+		int running = 0;
+		LinkedList<Ticket> queue = new LinkedList<Ticket>();
+
+		long busySlotNanos = 0;
+		long lastChange = System.nanoTime();
+
+		/**
+		 * adds the slot time since the last change of `running`
+		 */
+		void account() {
+			long now = System.nanoTime();
+			busySlotNanos += Math.min(running, slots) * (now - lastChange);
+			lastChange = now;
+		}
+	}
+
+	/**
+	 * a node without slots would never run anything + its load would be NaN / infinite
+	 */
+	private static void checkSlots(int slots) {
+		if (slots < 1) {
+			throw new IllegalArgumentException("slots must be at least 1: " + slots);
+		}
+	}
+
+	private NodeState getState(Node node) {
+		NodeState state = states.get(node);
+		if (state == null) {
+			state = new NodeState();
+			states.put(node, state);
+		}
+		return state;
+	}
+
+	/**
+	 * grants free slots of the node to its waiting executions
+	 */
+	private void grantWaiting(NodeState state) {
+		while (state.running < state.slots && !state.queue.isEmpty()) {
+			Ticket ticket = state.queue.removeFirst();
+			state.account();
+			state.running++;
+			ticket.granted = true;
+			ticket.grantedCondition.signal();
+		}
+	}
+
+	/**
+	 * lets every node with free slots + an empty queue steal waiting executions
+	 */
+	private void balance() {
+		if (stealPolicy == null) {
+			return;
+		}
+		for (Map.Entry<Node, NodeState> entry : states.entrySet()) {
+			NodeState thief = entry.getValue();
+			while (thief.running < thief.slots && thief.queue.isEmpty() && steal(entry.getKey(), thief)) {
+				grantWaiting(thief);
+			}
+		}
+	}
+
+	/**
+	 * moves the waiting execution with the highest gain (executions ahead of it per slot - penalty) to the thief's queue
+	 *
+	 * @return whether an execution got stolen
+	 */
+	private boolean steal(Node thiefNode, NodeState thief) {
+		Ticket best = null;
+		NodeState bestVictim = null;
+		double bestGain = 0;
+		for (Map.Entry<Node, NodeState> entry : states.entrySet()) {
+			NodeState victim = entry.getValue();
+			if (victim == thief) {
+				continue;
+			}
+			int position = 0;
+			for (Ticket ticket : victim.queue) {
+				// executions that have to finish on the victim before this one starts, per slot
+				double wait = (double) (victim.running - victim.slots + 1 + position) / victim.slots;
+				position++;
+				double gain = wait - stealPolicy.getStealPenalty(ticket.script, entry.getKey(), thiefNode);
+				if (gain > bestGain) {
+					best = ticket;
+					bestVictim = victim;
+					bestGain = gain;
+				}
+			}
+		}
+
+		if (best == null) {
+			return false;
+		}
+		bestVictim.queue.remove(best);
+		best.node = thiefNode;
+		thief.queue.add(best);
+		steals++;
+		return true;
+	}
+
+	private final int defaultSlots;
+	private final long created;
+	private final Map<Node, NodeState> states = new HashMap<Node, NodeState>();
+	private final Lock lock = new ReentrantLock();
+	private StealPolicy stealPolicy = null;
+	private int steals = 0;
+}
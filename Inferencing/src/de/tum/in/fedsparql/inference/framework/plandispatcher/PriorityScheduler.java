@@ -1,10 +1,8 @@
 package de.tum.in.fedsparql.inference.framework.plandispatcher;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import de.tum.in.fedsparql.inference.framework.Script;
 import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
@@ -14,8 +12,16 @@ import de.tum.in.fedsparql.inference.io.Monitoring;
 import de.tum.in.fedsparql.inference.io.Monitoring.Load;
 import de.tum.in.fedsparql.inference.io.Node;
 
+/**
+ * Starts the scripts of a window in the order of their priority, each on the node with the highest priority for it.
+ *
+ * Every priority is computed once per window: script priorities before sorting,
+ * node priorities from a single monitoring snapshot of all nodes.
+ */
 public class PriorityScheduler extends WindowedScheduler {
 
+	private static final Logger LOGGER = Logger.getLogger(PriorityScheduler.class.getName());
+
 	public PriorityScheduler(DependencyGraph collection, IO io,
 			Monitoring monitoring, Dispatcher dispatcher) {
 		super(collection, io, monitoring, dispatcher);
@@ -23,61 +29,66 @@ public class PriorityScheduler extends WindowedScheduler {
 	}
 
 	protected double getScriptPriority(Script script) {
-		return collection.getAllDependencies(script).size();
+		return collection.getAllDependenciesCount(script);
 	}
 
-	protected double getNodePriority(Script script, Node node) {
-		Load load = monitoring.monitor(node);
+	/**
+	 * @param load the node's load of the current window's snapshot
+	 */
+	protected double getNodePriority(Script script, Node node, Load load) {
 		return (1 - load.cpu) * 0.5 + (1 - load.io) * 0.5;
 	}
 
+	protected double getNodePriority(Script script, Node node) {
+		return getNodePriority(script, node, getLoad(node));
+	}
+
 	@Override
 	protected void scheduleWindow(Window window) {
-		List<ThreadInfo> threads = Arrays.asList(window.threads);
-		Collections.sort(threads, new Comparator<ThreadInfo>() {
-			@Override
-			public int compare(ThreadInfo o1, ThreadInfo o2) {
-				double priority1 = getScriptPriority(o1.script);
-				double priority2 = getScriptPriority(o2.script);
-
-				if (priority1 < priority2)
-					return 1;
-				if (priority1 > priority2)
-					return -1;
-				return 0;
+		ThreadInfo[] threads = window.threads;
+
+		// script priorities, sort the indices by them (descending)
+		double[] scriptPriorities = new double[threads.length];
+		for (int i = 0; i < threads.length; i++) {
+			scriptPriorities[i] = getScriptPriority(threads[i].script);
+		}
+		int[] order = sortDescending(scriptPriorities);
+
+		if (LOGGER.isLoggable(Level.FINE)) {
+			for (int i : order) {
+				LOGGER.fine("SCHEDULER: Priority of script " + threads[i].script + ": " + scriptPriorities[i]);
 			}
-		});
+		}
 
-		for (ThreadInfo threadInfo : threads) {
-			System.out.println("SCHEDULER: Priority of script " + threadInfo.script + ": " + getScriptPriority(threadInfo.script));
+		// one snapshot of the nodes' loads for the whole window
+		List<Node> nodes = io.getNodes();
+		Load[] loads = new Load[nodes.size()];
+		for (int n = 0; n < loads.length; n++) {
+			loads[n] = getLoad(nodes.get(n));
 		}
 
-		for (final ThreadInfo threadInfo : threads) {
-			List<Node> nodes = new ArrayList<Node>(io.getNodes());
-			Collections.sort(nodes, new Comparator<Node>() {
-				@Override
-				public int compare(Node o1, Node o2) {
-					double priority1 = getNodePriority(threadInfo.script, o1);
-					double priority2 = getNodePriority(threadInfo.script, o2);
-
-					if (priority1 < priority2)
-						return 1;
-					if (priority1 > priority2)
-						return -1;
-					return 0;
-				}
-			});
+		double[] nodePriorities = new double[nodes.size()];
+		for (int i : order) {
+			ThreadInfo threadInfo = threads[i];
 
-			for (Node node : nodes) {
-				System.out.println("SCHEDULER: Priority of node " + node + ": " + getNodePriority(threadInfo.script, node));
+			// best node = first node with the highest priority
+			int best = -1;
+			for (int n = 0; n < nodePriorities.length; n++) {
+				nodePriorities[n] = getNodePriority(threadInfo.script, nodes.get(n), loads[n]);
+				if (best < 0 || nodePriorities[n] > nodePriorities[best]) {
+					best = n;
+				}
+				if (LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine("SCHEDULER: Priority of node " + nodes.get(n) + ": " + nodePriorities[n]);
+				}
 			}
 
-			if (nodes.isEmpty()) {
+			if (best < 0) {
 				//start execution without specifying a node
 				threadInfo.startExecution(null);
 			} else {
-				//start execution using the first (best) node
-				threadInfo.startExecution(nodes.get(0));
+				//start execution using the best node
+				threadInfo.startExecution(nodes.get(best));
 			}
 		}
 	}
@@ -2,14 +2,24 @@ package de.tum.in.fedsparql.inference.framework.plandispatcher;
 
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import de.tum.in.fedsparql.inference.framework.DatabaseID;
 import de.tum.in.fedsparql.inference.framework.Script;
 import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
+import de.tum.in.fedsparql.inference.framework.metrics.ExecutionListener;
+import de.tum.in.fedsparql.inference.io.CachedMonitoring;
+import de.tum.in.fedsparql.inference.io.Database;
 import de.tum.in.fedsparql.inference.io.Dispatcher;
 import de.tum.in.fedsparql.inference.io.IO;
 import de.tum.in.fedsparql.inference.io.Monitoring;
+import de.tum.in.fedsparql.inference.io.Monitoring.Load;
 import de.tum.in.fedsparql.inference.io.Node;
+import de.tum.in.fedsparql.rts.executor.FSException;
 
 /**
  * Dispatcher.
@@ -22,6 +32,8 @@ import de.tum.in.fedsparql.inference.io.Node;
  */
 public abstract class Scheduler {
 
+	private static final Logger LOGGER = Logger.getLogger(Scheduler.class.getName());
+
 	public class ThreadInfo {
 		private Semaphore semaphore;
 		public Script script;
@@ -43,6 +55,14 @@ public abstract class Scheduler {
 	protected IO io;
 	protected Monitoring monitoring;
 	protected Dispatcher dispatcher;
+	/** execution slots per node, null: unlimited */
+	protected NodeSlots slots = null;
+	/** whether idle nodes steal queued executions of busy nodes (requires node slots) */
+	protected boolean workStealing = false;
+	/** penalty for moving an execution away from all of its databases, in script executions */
+	protected double stealPenalty = 2;
+	/** notified about the executions */
+	protected List<ExecutionListener> listeners = new CopyOnWriteArrayList<ExecutionListener>();
 
 	public Scheduler(DependencyGraph collection, IO io, Monitoring monitoring, Dispatcher dispatcher) {
 		this.collection = collection;
@@ -53,6 +73,82 @@ public abstract class Scheduler {
 
 	public abstract void schedule(ThreadInfo threadInfo);
 
+	/**
+	 * Limits the concurrent executions per node, executions beyond the limit wait in the node's queue.
+	 * @param slots null: unlimited
+	 */
+	public void setNodeSlots(NodeSlots slots) {
+		this.slots = slots;
+		applyWorkStealing();
+	}
+
+	public NodeSlots getNodeSlots() {
+		return slots;
+	}
+
+	public void addExecutionListener(ExecutionListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeExecutionListener(ExecutionListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the listeners to notify about executions of plans using this scheduler
+	 */
+	public List<ExecutionListener> getExecutionListeners() {
+		return listeners;
+	}
+
+	/**
+	 * Lets nodes with free slots take over executions waiting in the queues of busy nodes,
+	 * see getStealPenalty(). Only effective with node slots.
+	 */
+	public void setWorkStealing(boolean workStealing) {
+		this.workStealing = workStealing;
+		applyWorkStealing();
+	}
+
+	public boolean isWorkStealing() {
+		return workStealing;
+	}
+
+	public void setStealPenalty(double stealPenalty) {
+		this.stealPenalty = stealPenalty;
+	}
+
+	/**
+	 * @return cost of executing the script on `to` instead of `from` in script executions:
+	 *         stealPenalty * (share of the script's databases hosted by `from` - share hosted by `to`)
+	 */
+	protected double getStealPenalty(Script script, Node from, Node to) {
+		if (script == null) {
+			return 0;
+		}
+		int databases = 0;
+		int locality = 0;
+		for (DatabaseID databaseID : script.inputDatabases) {
+			locality += getLocality(databaseID, from, to);
+			databases++;
+		}
+		for (DatabaseID databaseID : script.outputDatabases) {
+			locality += getLocality(databaseID, from, to);
+			databases++;
+		}
+		return databases > 0 ? stealPenalty * locality / databases : 0;
+	}
+
+
+	/**
+	 * @return the node's load: smoothed (EWMA) if the monitoring is a CachedMonitoring, the current sample otherwise
+	 */
+	protected Load getLoad(Node node) {
+		if (monitoring instanceof CachedMonitoring) {
+			return ((CachedMonitoring) monitoring).getSmoothedLoad(node);
+		}
+		return monitoring.monitor(node);
+	}
 
 	/**
 	 * @return A random node or null of no node is available
@@ -65,21 +161,112 @@ public abstract class Scheduler {
 		return nodes.get(new Random().nextInt(nodes.size()));
 	}
 
+	/**
+	 * @return 1: hosted by `from`, -1: hosted by `to`, 0 otherwise
+	 */
+	private int getLocality(DatabaseID databaseID, Node from, Node to) {
+		Node host = io.getNodeForDatabase(databaseID.getName());
+		if (host == null) {
+			return 0;
+		}
+		return host.equals(from) ? 1 : host.equals(to) ? -1 : 0;
+	}
+
+	/**
+	 * @return sum of the databases' sizes, see getSize(DatabaseID)
+	 */
+	protected long getSize(Set<DatabaseID> databaseIDs) {
+		long size = 0;
+		for (DatabaseID databaseID : databaseIDs) {
+			size += getSize(databaseID);
+		}
+		return size;
+	}
+
+	/**
+	 * @return size of the database, 0 if unknown
+	 */
+	protected long getSize(DatabaseID databaseID) {
+		Database database = io.getDatabaseByName(databaseID.getName());
+		if (database != null) {
+			try {
+				return io.getSize(database);
+			} catch (FSException e) {
+				// unknown size => counts like an empty database
+			}
+		}
+		return 0;
+	}
+
+	private void applyWorkStealing() {
+		if (slots == null) {
+			return;
+		}
+		slots.setStealPolicy(!workStealing ? null : new NodeSlots.StealPolicy() {
+			@Override
+			public double getStealPenalty(Script script, Node from, Node to) {
+				return Scheduler.this.getStealPenalty(script, from, to);
+			}
+		});
+	}
+
 	public void executeInternal(Script script, DependencyGraph collection) throws Exception {
+		long arrived = System.nanoTime();
 		ThreadInfo threadInfo = new ThreadInfo(script);
 
 		schedule(threadInfo);
 
 		threadInfo.semaphore.acquire();
+		long scheduled = System.nanoTime();
 
 		if (threadInfo.node == null) {
 			throw new NoNodeException("No node available");
 		}
 
+		//wait for a slot of the selected node, an idle node may steal the execution meanwhile
+		Node node = threadInfo.node;
+		NodeSlots.Ticket ticket = null;
+		if (slots != null) {
+			ticket = slots.acquire(node, script);
+			node = ticket.getNode();
+		}
+		long granted = System.nanoTime();
+
 		//execute the script on the selected node
-		System.out.println("SCHEDULER: executing " + threadInfo.script + " on node " + threadInfo.node);
-		dispatcher.execute(threadInfo.node, threadInfo.script);
-		System.out.println("SCHEDULER: execution of " + threadInfo.script + " completed");
+		try {
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("SCHEDULER: executing " + threadInfo.script + " on node " + node);
+			}
+			dispatcher.execute(node, threadInfo.script);
+			if (LOGGER.isLoggable(Level.FINE)) {
+				LOGGER.fine("SCHEDULER: execution of " + threadInfo.script + " completed");
+			}
+
+			if (!listeners.isEmpty()) {
+				long dispatched = System.nanoTime();
+				for (ExecutionListener listener : listeners) {
+					listener.scriptExecuted(script, node, scheduled - arrived, granted - scheduled, dispatched - granted);
+				}
+			}
+		} finally {
+			if (ticket != null) {
+				slots.release(ticket);
+			}
+		}
+	}
+
+	/**
+	 * gets called when `count` more scripts became executable and are about to call executeInternal().
+	 * lets schedulers that wait for several scripts know how many to expect.
+	 */
+	public void announceExecutions(int count) {
+	}
+
+	/**
+	 * gets called when the execution-plan failed, before dispose().
+	 * scripts waiting for scheduling + scripts arriving until dispose() must return without a node.
+	 */
+	public void abort() {
 	}
 
 	/**
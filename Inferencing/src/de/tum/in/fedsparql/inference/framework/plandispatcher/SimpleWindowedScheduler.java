@@ -16,13 +16,37 @@ public class SimpleWindowedScheduler extends WindowedScheduler {
 		// TODO Auto-generated constructor stub
 	}
 
+	/**
+	 * round robin, with node slots: the node with the lowest load ((running + queued + assigned in this window) / slots),
+	 * ties in round robin order
+	 */
 	@Override
 	protected void scheduleWindow(Window window) {
 		List<Node> nodes = io.getNodes();
+		double[] loads = new double[nodes.size()];
+		double[] loadPerScript = new double[nodes.size()];
+		if (slots != null) {
+			for (int n = 0; n < loads.length; n++) {
+				loads[n] = slots.getLoad(nodes.get(n));
+				loadPerScript[n] = 1.0 / slots.getSlots(nodes.get(n));
+			}
+		}
+
 		int i = 0;
 		for (ThreadInfo threadInfo : window.threads) {
-			threadInfo.startExecution(nodes.get(i));
-			i++;
+			int node = i;
+			if (slots != null) {
+				for (int n = 1; n < nodes.size(); n++) {
+					int candidate = (i + n) % nodes.size();
+					if (loads[candidate] < loads[node]) {
+						node = candidate;
+					}
+				}
+				loads[node] += loadPerScript[node];
+			}
+
+			threadInfo.startExecution(nodes.get(node));
+			i = node + 1;
 			if (i >= nodes.size()) {
 				i = 0;
 			}
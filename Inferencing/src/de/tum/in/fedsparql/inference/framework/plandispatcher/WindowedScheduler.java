@@ -1,17 +1,33 @@
 package de.tum.in.fedsparql.inference.framework.plandispatcher;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import de.tum.in.fedsparql.inference.framework.graph.DependencyGraph;
 import de.tum.in.fedsparql.inference.io.Dispatcher;
 import de.tum.in.fedsparql.inference.io.IO;
 import de.tum.in.fedsparql.inference.io.Monitoring;
 
+/**
+ * Collects the scripts to execute in windows and schedules a whole window at once.
+ *
+ * A window opens with the first waiting script and closes as soon as
+ * - it contains maxWindowSize scripts
+ * - all scripts announced via announceExecutions() arrived
+ * - no script arrived for idleTimeout ms
+ * - it is open for windowDelay ms
+ * Larger windows give scheduleWindow() more choice, smaller ones less latency => see getWindowStatistics().
+ */
 public abstract class WindowedScheduler extends Scheduler {
 
 	public class Window {
@@ -22,6 +38,54 @@ public abstract class WindowedScheduler extends Scheduler {
 		}
 	}
 
+	/**
+	 * why a window was closed
+	 */
+	public static enum CloseReason {
+		SIZE, ALL_ARRIVED, IDLE, MAX_DELAY
+	}
+
+	/**
+	 * Snapshot of the windows scheduled so far.
+	 */
+	public static class WindowStatistics {
+		public final long windows;
+		public final long scripts;
+		/** sum over all scripts: time between arrival + window close */
+		public final long totalWaitNanos;
+		/** count of windows per CloseReason.ordinal() */
+		public final long[] closedBy;
+
+		public WindowStatistics(long windows, long scripts, long totalWaitNanos, long[] closedBy) {
+			this.windows = windows;
+			this.scripts = scripts;
+			this.totalWaitNanos = totalWaitNanos;
+			this.closedBy = closedBy.clone();
+		}
+
+		public double getAverageWindowSize() {
+			return windows > 0 ? (double) scripts / windows : 0;
+		}
+
+		public double getAverageWaitMillis() {
+			return scripts > 0 ? totalWaitNanos / 1e6 / scripts : 0;
+		}
+
+		public long getClosedBy(CloseReason reason) {
+			return closedBy[reason.ordinal()];
+		}
+
+		@Override
+		public String toString() {
+			String str = windows + " windows, " + scripts + " scripts, avg. size " + getAverageWindowSize()
+					+ ", avg. wait " + getAverageWaitMillis() + "ms, closed by";
+			for (CloseReason reason : CloseReason.values()) {
+				str += " " + reason + "=" + getClosedBy(reason);
+			}
+			return str;
+		}
+	}
+
 	public WindowedScheduler(DependencyGraph collection, IO io,
 			Monitoring monitoring, Dispatcher dispatcher) {
 		super(collection, io, monitoring, dispatcher);
@@ -29,44 +93,254 @@ public abstract class WindowedScheduler extends Scheduler {
 	}
 
 	private Queue<ThreadInfo> waitingThreads = new LinkedBlockingQueue<ThreadInfo>();
-	private Timer timer = new Timer();
-	private boolean timerStarted = false;
+	/** guards all window state (a Lock instead of synchronized doesn't pin virtual threads) */
+	private Lock lock = new ReentrantLock();
+	private ScheduledExecutorService timer = null;
 
+	/** increased with every closed window => outdated timer tasks are ignored */
+	private long windowNumber = 0;
+	private boolean windowOpen = false;
+	private ScheduledFuture<?> maxDelayTask = null;
+	private ScheduledFuture<?> idleTask = null;
+	/** sum of the arrival times (System.nanoTime()) of the waiting scripts */
+	private long arrivalSum = 0;
+
+	/** announced scripts that didn't arrive yet */
+	private int expectedArrivals = 0;
+	private boolean announced = false;
+	/** set by abort() until dispose() => scripts return without a node instead of waiting for a window */
+	private boolean aborted = false;
+
+	private long windows = 0;
+	private long scheduledScripts = 0;
+	private long totalWaitNanos = 0;
+	private long[] closedBy = new long[CloseReason.values().length];
+
+	/** max. time a window stays open [ms] */
 	protected int windowDelay = 1000;
+	/** a window closes if no script arrived for this time [ms] */
+	protected int idleTimeout = 50;
+	/** a window closes as soon as it contains this many scripts */
+	protected int maxWindowSize = 100;
 
 	protected abstract void scheduleWindow(Window window);
 
+	/**
+	 * Tells the scheduler that count more scripts became executable and are about to call schedule().
+	 * Once all announced scripts arrived the current window closes without waiting for timeouts.
+	 */
+	@Override
+	public void announceExecutions(int count) {
+		lock.lock();
+		try {
+			announced = true;
+			expectedArrivals += count;
+		} finally {
+			lock.unlock();
+		}
+	}
+
 	@Override
 	public void schedule(ThreadInfo threadInfo) {
-		synchronized (waitingThreads) {
+		lock.lock();
+		try {
+			if (aborted) {
+				threadInfo.startExecution(null);
+				return;
+			}
+
+			long now = System.nanoTime();
 			waitingThreads.add(threadInfo);
-			if (!timerStarted) {
-				timerStarted = true;
-				timer.schedule(new TimerTask() {
-
-					@Override
-					public void run() {
-						timerStarted = false;
-
-						List<ThreadInfo> threadList = new ArrayList<ThreadInfo>();
-						synchronized (waitingThreads) {
-							while (!waitingThreads.isEmpty()) {
-								ThreadInfo threadInfo = waitingThreads.poll();
-								threadList.add(threadInfo);
-							}
-						}
-
-						Window window = new Window(threadList.toArray(new ThreadInfo[threadList.size()]));
-
-						scheduleWindow(window);
-					}
-				}, windowDelay);
+			arrivalSum += now;
+			if (expectedArrivals > 0) {
+				expectedArrivals--;
+			}
+
+			if (!windowOpen) {
+				windowOpen = true;
+				maxDelayTask = submitClose(CloseReason.MAX_DELAY, windowDelay);
+			}
+
+			if (waitingThreads.size() >= maxWindowSize) {
+				submitClose(CloseReason.SIZE, 0);
+			} else if (announced && expectedArrivals == 0) {
+				submitClose(CloseReason.ALL_ARRIVED, 0);
+			} else {
+				if (idleTask != null) {
+					idleTask.cancel(false);
+				}
+				idleTask = submitClose(CloseReason.IDLE, idleTimeout);
 			}
+		} finally {
+			lock.unlock();
 		}
 	}
 
+	/**
+	 * @return statistics of all windows scheduled so far
+	 */
+	public WindowStatistics getWindowStatistics() {
+		lock.lock();
+		try {
+			return new WindowStatistics(windows, scheduledScripts, totalWaitNanos, closedBy);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int getWindowDelay() {
+		return windowDelay;
+	}
+
+	public void setWindowDelay(int windowDelay) {
+		this.windowDelay = windowDelay;
+	}
+
+	public int getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(int idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public int getMaxWindowSize() {
+		return maxWindowSize;
+	}
+
+	public void setMaxWindowSize(int maxWindowSize) {
+		this.maxWindowSize = maxWindowSize;
+	}
+
+	/**
+	 * drops the current window: its scripts + all scripts arriving until dispose() return without a node
+	 */
+	@Override
+	public void abort() {
+		List<ThreadInfo> threadList = new ArrayList<ThreadInfo>();
+		lock.lock();
+		try {
+			aborted = true;
+			windowNumber++;
+			windowOpen = false;
+			arrivalSum = 0;
+			while (!waitingThreads.isEmpty()) {
+				threadList.add(waitingThreads.poll());
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		for (ThreadInfo threadInfo : threadList) {
+			threadInfo.startExecution(null);
+		}
+	}
+
+	/**
+	 * stops the timer + forgets announced scripts, a later schedule() starts a new timer
+	 */
 	@Override
 	public void dispose() {
-		timer.cancel();
+		lock.lock();
+		try {
+			aborted = false;
+			if (timer != null) {
+				timer.shutdownNow();
+				timer = null;
+			}
+			windowNumber++;
+			windowOpen = false;
+			expectedArrivals = 0;
+			announced = false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Sorts the indices of the priorities by descending priority, equal priorities by ascending index.
+	 * Sorts primitive keys: the priority's bits in sortable form (inverted => descending),
+	 * their lowest bits replaced by the index. Priorities closer than these bits count as equal.
+	 *
+	 * @return the indices in the order to schedule
+	 */
+	protected static int[] sortDescending(double[] priorities) {
+		int bits = 32 - Integer.numberOfLeadingZeros(priorities.length);
+		long mask = (1L << bits) - 1;
+
+		long[] keys = new long[priorities.length];
+		for (int i = 0; i < keys.length; i++) {
+			long sortable = Double.doubleToLongBits(priorities[i]);
+			sortable ^= (sortable >> 63) & Long.MAX_VALUE;
+			keys[i] = (~sortable & ~mask) | i;
+		}
+		Arrays.sort(keys);
+
+		int[] order = new int[keys.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = (int) (keys[i] & mask);
+		}
+		return order;
+	}
+
+	/**
+	 * schedules closing the current window (lock must be held)
+	 */
+	private ScheduledFuture<?> submitClose(final CloseReason reason, int delay) {
+		if (timer == null) {
+			timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "WindowedScheduler");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		final long window = windowNumber;
+		return timer.schedule(new Runnable() {
+			@Override
+			public void run() {
+				closeWindow(window, reason);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * closes the window if it is still the given one + schedules its scripts
+	 */
+	private void closeWindow(long window, CloseReason reason) {
+		List<ThreadInfo> threadList = new ArrayList<ThreadInfo>();
+		lock.lock();
+		try {
+			if (window != windowNumber || !windowOpen) {
+				return;
+			}
+			windowNumber++;
+			windowOpen = false;
+			maxDelayTask.cancel(false);
+			if (idleTask != null) {
+				idleTask.cancel(false);
+				idleTask = null;
+			}
+
+			while (!waitingThreads.isEmpty()) {
+				ThreadInfo threadInfo = waitingThreads.poll();
+				threadList.add(threadInfo);
+			}
+
+			windows++;
+			scheduledScripts += threadList.size();
+			totalWaitNanos += threadList.size() * System.nanoTime() - arrivalSum;
+			arrivalSum = 0;
+			closedBy[reason.ordinal()]++;
+		} finally {
+			lock.unlock();
+		}
+
+		Window w = new Window(threadList.toArray(new ThreadInfo[threadList.size()]));
+
+		scheduleWindow(w);
 	}
 }
@@ -1,5 +1,8 @@
 package de.tum.in.fedsparql.inference.framework.xceptions;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Exception stating that a dependency cycle within a DependencyGraph disturbed the processing.
  */
@@ -26,6 +29,28 @@ public class DependencyCycleException extends Exception {
 	public DependencyCycleException(String message, Throwable cause) {
 		super(message,cause);
 	}
+	/**
+	 * @param message
+	 * @param cycle the items forming the cycle that disturbed the processing (in dependency order)
+	 * @see Exception#Exception(String)
+	 */
+	public DependencyCycleException(String message, List<?> cycle) {
+		super(message);
+		if (cycle != null) {
+			_cycle = new ArrayList<Object>(cycle);
+		}
+	}
+
+
+	/*
+	 * public methods
+	 */
+	/**
+	 * @return the items forming the cycle || NULL if unknown
+	 */
+	public List<Object> getCycle() {
+		return _cycle;
+	}
 
 
 	/*
@@ -35,4 +60,8 @@ public class DependencyCycleException extends Exception {
 	 * generated serialVersionUID
 	 */
 	private static final long serialVersionUID = 5451795954418258150L;
+	/**
+	 * the cycle (may be NULL)
+	 */
+	private List<Object> _cycle = null;
 }